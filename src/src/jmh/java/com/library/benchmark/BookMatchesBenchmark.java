@@ -0,0 +1,41 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link Book#matches(String)} call, hit and miss, against the original
+ * implementation that lowercased the query and all three fields on every call. Run with
+ * {@code -prof gc} to compare allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMatchesBenchmark {
+    @Param({"code", "martin", "0884", "zzz"})
+    String query;
+
+    private final Book book = new Book("Clean Code", "Robert C. Martin", "9780132350884");
+
+    @Benchmark
+    public boolean matches() {
+        return book.matches(query);
+    }
+
+    @Benchmark
+    public boolean matchesLegacy() {
+        return legacyMatches(book, query);
+    }
+
+    static boolean legacyMatches(Book b, String q) {
+        String k = q.toLowerCase();
+        return b.getTitle().toLowerCase().contains(k)
+                || b.getAuthor().toLowerCase().contains(k)
+                || b.getIsbn().toLowerCase().contains(k);
+    }
+}
@@ -0,0 +1,76 @@
+package com.library.benchmark;
+
+import com.library.app.BorrowingService;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One full circulation cycle, {@link BorrowingService#borrow} then
+ * {@link BorrowingService#returnBook}, single-threaded and with every core contending.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class BorrowingBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Param({"10000", "1000000", "10000000"})
+    int catalogSize;
+
+    @Param({"0", "100000", "1000000"})
+    int loanHistory;
+
+    private List<Book> books;
+    private BorrowingService service;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        books = CatalogFixtures.books(catalogSize);
+        var repo = new InMemoryLoanRepository();
+        CatalogFixtures.loanHistory(repo, books, CatalogFixtures.users(1000), loanHistory, TODAY);
+        // the fixture leaves some loans open; bring their copies in line
+        for (Loan l : repo.findOpen()) l.getBook().markBorrowed();
+        service = new BorrowingService(repo, Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @State(Scope.Thread)
+    public static class Patron {
+        final User user = new User("bench-" + Thread.currentThread().getId(), "bench");
+    }
+
+    @Benchmark
+    public Loan borrowAndReturn(Patron p) {
+        return cycle(p.user);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Loan borrowAndReturnContended(Patron p) {
+        return cycle(p.user);
+    }
+
+    private Loan cycle(User user) {
+        while (true) {
+            Book b = books.get(Math.floorMod(next.getAndIncrement(), books.size()));
+            if (!b.isAvailable()) continue;
+            Loan l;
+            try { l = service.borrow(user, b); } catch (IllegalStateException taken) { continue; }
+            service.returnBook(user, b);
+            return l;
+        }
+    }
+}
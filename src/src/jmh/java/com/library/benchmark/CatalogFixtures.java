@@ -0,0 +1,82 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.repository.LoanRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deterministic synthetic catalogs and loan histories shared by the benchmark suites.
+ */
+final class CatalogFixtures {
+    private static final String[] WORDS = {
+            "clean", "code", "java", "design", "patterns", "systems", "data", "engineering",
+            "math", "history", "modern", "introduction", "advanced", "practical", "theory",
+            "algorithms", "networks", "art", "science", "guide", "principles", "concurrency",
+            "architecture", "analysis", "programming", "software", "database", "learning"
+    };
+    private static final String[] FIRST = {
+            "Robert", "Mike", "Aseel", "Maram", "Martin", "Joshua", "Brian", "Donald",
+            "Barbara", "Grace", "Ada", "Linus", "Ken", "Dennis", "Edsger", "Niklaus"
+    };
+
+    private CatalogFixtures() {}
+
+    static List<Book> books(int n) { return books(n, UnaryOperator.identity()); }
+
+    /** Same catalog, passing every author name through {@code authors} (e.g. to intern it). */
+    static List<Book> books(int n, UnaryOperator<String> authors) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        int distinct = Math.max(1, n / 20);
+        List<Book> res = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) res.add(new Book(title(rnd), authors.apply(author(rnd.nextInt(distinct))), isbn(i)));
+        return res;
+    }
+
+    static String title(SplittableRandom rnd) {
+        int words = 2 + rnd.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            String s = WORDS[rnd.nextInt(WORDS.length)];
+            if (w > 0) sb.append(' ');
+            sb.append(Character.toUpperCase(s.charAt(0))).append(s, 1, s.length());
+        }
+        return sb.toString();
+    }
+
+    static String author(int id) {
+        return FIRST[id % FIRST.length] + " " + (char) ('A' + (id / FIRST.length) % 26) + ". Author" + id;
+    }
+
+    /** ISBN-13 shaped key, unique per index. */
+    static String isbn(int i) {
+        return "978" + String.format("%010d", i);
+    }
+
+    static List<User> users(int n) {
+        List<User> res = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) res.add(new User("U" + i, "user" + i));
+        return res;
+    }
+
+    /**
+     * Fill the repository with {@code history} loans borrowed over the two years before
+     * {@code today}; loans whose due date is still ahead, plus a few stragglers, stay open.
+     */
+    static void loanHistory(LoanRepository repo, List<Book> books, List<User> users, int history, LocalDate today) {
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (int i = 0; i < history; i++) {
+            LocalDate borrowed = today.minusDays(rnd.nextInt(730));
+            LocalDate due = borrowed.plusDays(28);
+            Loan l = new Loan(users.get(rnd.nextInt(users.size())), books.get(rnd.nextInt(books.size())), borrowed, due);
+            repo.save(l);
+            if (!due.isAfter(today) && rnd.nextInt(100) >= 2) l.markReturned();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.repository.BookRepository;
+import com.library.domain.search.CatalogIndex;
+import com.library.domain.search.TermDictionary;
+import com.library.infrastructure.ColumnarBookRepository;
+import com.library.infrastructure.InMemoryBookRepository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per title for each catalog store, for the books themselves with and
+ * without a shared author dictionary and what a linear scan adds to them, and for the
+ * search index, on the synthetic catalog the benchmarks use. Not a JMH benchmark; run it
+ * on its own heap:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.library.benchmark.CatalogFootprint [titles]
+ * </pre>
+ */
+public final class CatalogFootprint {
+    private CatalogFootprint() {}
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%,d titles%n", n);
+        report("InMemoryBookRepository", n, InMemoryBookRepository::new);
+        report("ColumnarBookRepository", n, ColumnarBookRepository::new);
+        books(n);
+        index(n);
+    }
+
+    private static void books(int n) {
+        long before = usedAfterGc();
+        List<Book> raw = CatalogFixtures.books(n);
+        long mid = usedAfterGc();
+        TermDictionary authors = new TermDictionary();
+        List<Book> interned = CatalogFixtures.books(n, authors::canonical);
+        long after = usedAfterGc();
+        System.out.printf("%-24s %,8.1f bytes/title%n", "Books, own strings", (mid - before) / (double) n);
+        System.out.printf("%-24s %,8.1f bytes/title  (%d authors)%n", "Books, interned authors",
+                (after - mid) / (double) n, authors.size() + raw.size() - interned.size()); // keeps both lists live
+        String q = Book.fold("no such title");
+        long hits = interned.stream().filter(b -> b.matchesFolded(q)).count(); // folds every book's fields
+        long scanned = usedAfterGc();
+        System.out.printf("%-24s %,8.1f bytes/title  (folded fields, %d hits)%n", "  + after a linear scan",
+                (scanned - after) / (double) n, hits + raw.size() - interned.size());
+    }
+
+    private static void index(int n) {
+        List<Book> books = CatalogFixtures.books(n);
+        long before = usedAfterGc();
+        CatalogIndex index = new CatalogIndex();
+        index.addAll(books);
+        long after = usedAfterGc();
+        System.out.printf("%-24s %,8.1f bytes/title  (%d authors, %d title tokens)%n", "CatalogIndex",
+                (after - before) / (double) n, index.authors().size(), index.titleTokens().size());
+    }
+
+    private static void report(String name, int n, Supplier<BookRepository> store) {
+        long before = usedAfterGc();
+        BookRepository repo = store.get();
+        List<Book> books = CatalogFixtures.books(n);
+        for (Book b : books) repo.save(b);
+        books = null;
+        long after = usedAfterGc();
+        System.out.printf("%-24s %,8.1f bytes/title  (%d books)%n", name, (after - before) / (double) n, repo.count());
+    }
+
+    static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
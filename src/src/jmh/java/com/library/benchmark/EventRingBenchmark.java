@@ -0,0 +1,53 @@
+package com.library.benchmark;
+
+import com.library.domain.event.EventCounts;
+import com.library.domain.event.EventRing;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of publishing one event to an {@link EventRing}, in nanoseconds, with
+ * {@code handlers} counting handlers draining it on their own threads; 0 handlers is the
+ * bare claim-fill-publish cost. Run with {@code -t 4} to see contended claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventRingBenchmark {
+    @Param({"0", "1", "3"})
+    int handlers;
+
+    @Param({"16384"})
+    int size;
+
+    private EventRing ring;
+    private User user;
+    private Loan loan;
+
+    @Setup
+    public void setUp() {
+        ring = new EventRing(size);
+        for (int i = 0; i < handlers; i++) ring.addHandler("counts-" + i, new EventCounts());
+        ring.start();
+        user = new User("U1", "Bench");
+        loan = new Loan(user, new Book("Clean Code", "Robert C. Martin", "9780132350884"),
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 29));
+    }
+
+    @TearDown
+    public void tearDown() { ring.close(); }
+
+    @Benchmark
+    public void loanCreated() { ring.loanCreated(loan); }
+
+    @Benchmark
+    public void fineAccrued() { ring.fineAccrued(user, 150); }
+}
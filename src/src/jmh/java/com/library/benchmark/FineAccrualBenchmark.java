@@ -0,0 +1,64 @@
+package com.library.benchmark;
+
+import com.library.app.FineAccrualService;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One daily accrual sweep over {@code loans} open, overdue loans on a pool of
+ * {@code threads} workers. Every invocation accrues one day later than the last, so every
+ * loan is priced and charged each time; the cap is out of reach.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FineAccrualBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Param({"5000000"})
+    int loans;
+
+    @Param({"1", "4", "8"})
+    int threads;
+
+    private ForkJoinPool pool;
+    private FineAccrualService accrual;
+    private LocalDate day;
+
+    @Setup
+    public void setUp() {
+        List<Book> books = CatalogFixtures.books(loans);
+        List<User> users = CatalogFixtures.users(loans / 10);
+        var loanRepo = new InMemoryLoanRepository();
+        for (int i = 0; i < loans; i++) {
+            LocalDate borrowed = TODAY.minusDays(29 + i % 60);
+            loanRepo.save(new Loan(users.get(i % users.size()), books.get(i), borrowed, borrowed.plusDays(28)));
+        }
+        pool = new ForkJoinPool(threads);
+        accrual = new FineAccrualService(loanRepo, new InMemoryFineRepository(), Clock.systemUTC(),
+                new FineAccrualService.Policy(100, Long.MAX_VALUE), pool, FineAccrualService.DEFAULT_PARTITION, null);
+        day = TODAY;
+    }
+
+    @TearDown
+    public void tearDown() { pool.shutdown(); }
+
+    @Benchmark
+    public FineAccrualService.Run sweep() {
+        day = day.plusDays(1);
+        return accrual.accrueThrough(day);
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.benchmark;
+
+import com.library.app.FineService;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryFineRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FineService#addFine} and {@link FineService#balance} across a population of
+ * users, so map size and hashing are part of the number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FineBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    private List<User> population;
+    private FineService service;
+
+    @Setup
+    public void setUp() {
+        population = CatalogFixtures.users(users);
+        service = new FineService(new InMemoryFineRepository());
+        for (User u : population) service.addFine(u, 5);
+    }
+
+    @Benchmark
+    public User addFine() {
+        User u = population.get(ThreadLocalRandom.current().nextInt(users));
+        service.addFine(u, 0.5);
+        return u;
+    }
+
+    @Benchmark
+    public double balance() {
+        return service.balance(population.get(ThreadLocalRandom.current().nextInt(users)));
+    }
+}
@@ -0,0 +1,148 @@
+package com.library.benchmark;
+
+import com.library.app.AsyncLibraryService;
+import com.library.domain.model.Book;
+import com.library.presentation.http.LibraryHttpServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop load test for {@link LibraryHttpServer}: {@code clients} workers each send
+ * a request, wait for the answer and send the next. The mix is 80% searches, 10% borrow
+ * and return pairs and 10% balance lookups. After a warm-up, every latency is recorded,
+ * and requests per second and the p50/p99/p999 latencies are printed. Not a JMH
+ * benchmark; without {@code --url} it starts a server in-process on the synthetic catalog:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.library.benchmark.HttpLoadGenerator \
+ *     [--url http://host:8080] [--clients 64] [--seconds 20] [--warmup 5] [--books 100000]
+ * </pre>
+ *
+ * Against a remote server the ISBNs are guessed from the catalog fixtures, so borrows
+ * of unknown books count as 404s.
+ */
+public final class HttpLoadGenerator {
+    private static final String[] STATUSES = {"2xx", "4xx", "5xx", "error"};
+
+    private HttpLoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 64, seconds = 20, warmup = 5, books = 100_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url" -> url = args[i + 1];
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--books" -> books = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        List<Book> catalog = CatalogFixtures.books(books);
+        LibraryHttpServer server = null;
+        if (url == null) {
+            server = LibraryHttpServer.inMemory(new InetSocketAddress("127.0.0.1", 0), Clock.systemDefaultZone(), catalog);
+            server.start();
+            url = "http://127.0.0.1:" + server.port();
+        }
+        try {
+            run(url, catalog, clients, warmup, seconds);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void run(String base, List<Book> catalog, int clients, int warmup, int seconds) throws Exception {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        AtomicLongArray statuses = new AtomicLongArray(STATUSES.length);
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmup).toNanos();
+        long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService pool = AsyncLibraryService.newThreadPerTaskExecutor(clients);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int id = c;
+            workers.add(pool.submit(() -> worker(http, base, catalog, id, measureFrom, end, statuses)));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> f : workers) {
+            long[] w = f.get();
+            int at = all.length;
+            all = Arrays.copyOf(all, at + w.length);
+            System.arraycopy(w, 0, all, at, w.length);
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+
+        System.out.printf("%s, %d clients, %d s measured after %d s warm-up%n", base, clients, seconds, warmup);
+        System.out.printf("requests %,d  (%,.0f req/s)%n", all.length, all.length / (double) seconds);
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (statuses.get(i) > 0) System.out.printf("  %-5s %,d%n", STATUSES[i], statuses.get(i));
+        }
+        if (all.length == 0) return;
+        System.out.printf("latency p50 %.3f ms  p99 %.3f ms  p999 %.3f ms  max %.3f ms%n",
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1] / 1e6);
+    }
+
+    /** One client's latencies, in nanoseconds, of the requests sent in the measured window. */
+    private static long[] worker(HttpClient http, String base, List<Book> catalog, int id, long measureFrom, long end,
+                                 AtomicLongArray statuses) {
+        SplittableRandom rnd = new SplittableRandom(id);
+        String user = "LOAD" + id;
+        long[] latencies = new long[1 << 12];
+        int n = 0;
+        for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+            int op = rnd.nextInt(10);
+            Book book = catalog.get(rnd.nextInt(catalog.size()));
+            List<HttpRequest> requests = new ArrayList<>(2);
+            if (op < 8) {
+                String q = book.getTitle().split(" ")[0];
+                requests.add(HttpRequest.newBuilder(URI.create(base + "/search?q=" + q + "&limit=10")).build());
+            } else if (op == 8) {
+                String form = "?user=" + user + "&isbn=" + book.getIsbn();
+                requests.add(HttpRequest.newBuilder(URI.create(base + "/borrow" + form)).POST(HttpRequest.BodyPublishers.noBody()).build());
+                requests.add(HttpRequest.newBuilder(URI.create(base + "/return" + form)).POST(HttpRequest.BodyPublishers.noBody()).build());
+            } else {
+                requests.add(HttpRequest.newBuilder(URI.create(base + "/balance?user=" + user)).build());
+            }
+            for (HttpRequest req : requests) {
+                long t0 = System.nanoTime();
+                int bucket;
+                try {
+                    int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    bucket = status < 400 ? 0 : status < 500 ? 1 : 2;
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                    bucket = 3;
+                }
+                long t1 = System.nanoTime();
+                if (t0 < measureFrom || t1 > end) continue;
+                statuses.incrementAndGet(bucket);
+                if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+                latencies[n++] = t1 - t0;
+            }
+        }
+        return Arrays.copyOf(latencies, n);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+    }
+}
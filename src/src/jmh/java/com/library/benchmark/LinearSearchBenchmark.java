@@ -0,0 +1,47 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Librarian;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Full-catalog {@link Librarian#search(List, String)} against the original stream that
+ * lowercased every field of every book per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinearSearchBenchmark {
+    @Param({"100000"})
+    int size;
+
+    @Param({"java", "Author12", "zzz"})
+    String query;
+
+    private List<Book> catalog;
+    private final Librarian librarian = new Librarian();
+
+    @Setup
+    public void setUp() {
+        catalog = CatalogFixtures.books(size);
+    }
+
+    @Benchmark
+    public List<Book> search() {
+        return librarian.search(catalog, query);
+    }
+
+    @Benchmark
+    public List<Book> searchLegacy() {
+        return catalog.stream()
+                .filter(b -> BookMatchesBenchmark.legacyMatches(b, query))
+                .collect(Collectors.toList());
+    }
+}
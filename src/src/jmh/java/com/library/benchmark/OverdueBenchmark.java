@@ -0,0 +1,54 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.service.OverdueService;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OverdueService#findOverdues(List)} over a copy of the full history against the
+ * due-date indexed {@link OverdueService#findOverdues()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class OverdueBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Param({"10000", "1000000", "10000000"})
+    int catalogSize;
+
+    @Param({"100000", "1000000", "10000000"})
+    int loanHistory;
+
+    private InMemoryLoanRepository repo;
+    private OverdueService service;
+
+    @Setup
+    public void setUp() {
+        List<Book> books = CatalogFixtures.books(catalogSize);
+        repo = new InMemoryLoanRepository();
+        CatalogFixtures.loanHistory(repo, books, CatalogFixtures.users(10_000), loanHistory, TODAY);
+        service = new OverdueService(Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC), repo);
+    }
+
+    @Benchmark
+    public List<Loan> scanHistory() {
+        return service.findOverdues(repo.findAll());
+    }
+
+    @Benchmark
+    public List<Loan> indexed() {
+        return service.findOverdues();
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.search.CatalogScan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-catalog substring scan through {@link CatalogScan} on a pool of {@code threads}
+ * workers; 1 thread is the sequential baseline. Run with a heap big enough for the
+ * catalog, e.g. {@code -jvmArgs -Xmx8g} for 10M books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParallelScanBenchmark {
+    @Param({"10000000"})
+    int size;
+
+    @Param({"1", "2", "4", "8", "16"})
+    int threads;
+
+    @Param({"Author12", "zzz"})
+    String query;
+
+    private List<Book> catalog;
+    private ForkJoinPool pool;
+    private CatalogScan scan;
+
+    @Setup
+    public void setUp() {
+        catalog = CatalogFixtures.books(size);
+        pool = new ForkJoinPool(threads);
+        scan = new CatalogScan(pool, CatalogScan.DEFAULT_SEGMENT, CatalogScan.DEFAULT_THRESHOLD);
+    }
+
+    @TearDown
+    public void tearDown() { pool.shutdown(); }
+
+    @Benchmark
+    public List<Book> scan() {
+        return scan.search(catalog, query);
+    }
+}
@@ -0,0 +1,75 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryBookRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups and history copies on the in-memory book and loan repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class RepositoryBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Param({"10000", "1000000", "10000000"})
+    int catalogSize;
+
+    @Param({"100000", "1000000"})
+    int loanHistory;
+
+    private List<Book> books;
+    private List<User> users;
+    private InMemoryBookRepository bookRepo;
+    private InMemoryLoanRepository loanRepo;
+
+    @Setup
+    public void setUp() {
+        books = CatalogFixtures.books(catalogSize);
+        users = CatalogFixtures.users(10_000);
+        bookRepo = new InMemoryBookRepository();
+        for (Book b : books) bookRepo.save(b);
+        loanRepo = new InMemoryLoanRepository();
+        CatalogFixtures.loanHistory(loanRepo, books, users, loanHistory, TODAY);
+    }
+
+    @Benchmark
+    public Optional<Book> bookFindByIsbn() {
+        return bookRepo.findByIsbn(books.get(ThreadLocalRandom.current().nextInt(catalogSize)).getIsbn());
+    }
+
+    @Benchmark
+    public void bookSave() {
+        bookRepo.save(books.get(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    public Optional<Loan> loanFindOpenLoan() {
+        var rnd = ThreadLocalRandom.current();
+        return loanRepo.findOpenLoan(users.get(rnd.nextInt(users.size())), books.get(rnd.nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    public List<Loan> loanFindByUser() {
+        return loanRepo.findByUser(users.get(ThreadLocalRandom.current().nextInt(users.size())));
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public List<Loan> loanFindAll() {
+        return loanRepo.findAll();
+    }
+}
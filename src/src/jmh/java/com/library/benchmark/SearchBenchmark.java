@@ -0,0 +1,47 @@
+package com.library.benchmark;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Librarian;
+import com.library.domain.search.CatalogIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search: linear {@link Librarian#search(List, String)} against the n-gram index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class SearchBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int catalogSize;
+
+    @Param({"j", "code", "author42", "9780000012"})
+    String query;
+
+    private List<Book> catalog;
+    private CatalogIndex index;
+    private final Librarian librarian = new Librarian();
+
+    @Setup
+    public void setUp() {
+        catalog = CatalogFixtures.books(catalogSize);
+        index = new CatalogIndex();
+        for (Book b : catalog) index.add(b);
+    }
+
+    @Benchmark
+    public List<Book> librarianSearch() {
+        return librarian.search(catalog, query);
+    }
+
+    @Benchmark
+    public List<Book> indexSearch() {
+        return index.search(query);
+    }
+}
@@ -0,0 +1,158 @@
+package com.library.app;
+
+import com.library.domain.model.Admin;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.search.SearchPage;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking front for the application services: every call returns at once with a
+ * {@link CompletableFuture} and runs on its own virtual thread where the JVM has them
+ * (Java 21+), otherwise on a bounded pool of daemon threads.
+ *
+ * <p>At most {@code maxConcurrent} calls run at a time; the rest wait for a permit. Each
+ * call has a deadline counted from submission: a call still waiting for a permit at its
+ * deadline never runs, and one still running is left to finish but its future fails with
+ * a {@link TimeoutException}. Exceptions the services throw, such as
+ * {@code IllegalStateException("Book not available.")}, fail the future unchanged.
+ */
+public class AsyncLibraryService implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONCURRENT = 10_000;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+    // platform threads are expensive; without virtual threads at most this many run at once
+    private static final int MAX_PLATFORM_THREADS = 256;
+
+    private final BorrowingService borrowing;
+    private final FineService fines;
+    private final CatalogService catalog;
+    private final AuthService auth;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Duration timeout;
+
+    public AsyncLibraryService(BorrowingService borrowing, FineService fines, CatalogService catalog, AuthService auth) {
+        this(borrowing, fines, catalog, auth, DEFAULT_MAX_CONCURRENT, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param maxConcurrent calls allowed to run at the same time
+     * @param timeout       deadline of each call, from submission
+     */
+    public AsyncLibraryService(BorrowingService borrowing, FineService fines, CatalogService catalog, AuthService auth,
+                               int maxConcurrent, Duration timeout) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        if (timeout.isNegative() || timeout.isZero()) throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        this.borrowing = borrowing; this.fines = fines; this.catalog = catalog; this.auth = auth;
+        this.executor = newThreadPerTaskExecutor(maxConcurrent);
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+    }
+
+    // ===== Circulation =====
+
+    public CompletableFuture<Loan> borrow(User user, Book book) { return call(() -> borrowing.borrow(user, book)); }
+
+    public CompletableFuture<Void> returnBook(User user, Book book) {
+        return call(() -> { borrowing.returnBook(user, book); return null; });
+    }
+
+    // ===== Catalog =====
+
+    public CompletableFuture<Boolean> addBook(Admin admin, Book book) { return call(() -> catalog.addBook(admin, book)); }
+
+    public CompletableFuture<SearchPage> search(String query, int offset, int limit) {
+        return call(() -> catalog.search(query, offset, limit));
+    }
+
+    public CompletableFuture<SearchPage> fuzzySearch(String query, int offset, int limit) {
+        return call(() -> catalog.fuzzySearch(query, offset, limit));
+    }
+
+    // ===== Fines (agorot) =====
+
+    public CompletableFuture<Long> balance(User user) { return call(() -> fines.balanceAgorot(user)); }
+
+    public CompletableFuture<Void> addFine(User user, long agorot) {
+        return call(() -> { fines.addFineAgorot(user, agorot); return null; });
+    }
+
+    /** Completes with the amount actually applied; see {@link FineService#payAgorot}. */
+    public CompletableFuture<Long> pay(User user, long agorot) { return call(() -> fines.payAgorot(user, agorot)); }
+
+    // ===== Admin =====
+
+    public CompletableFuture<Boolean> login(Admin admin, String username, String password) {
+        return call(() -> auth.login(admin, username, password));
+    }
+
+    public CompletableFuture<Void> logout(Admin admin) { return call(() -> { auth.logout(admin); return null; }); }
+
+    /** Run any other work under the same concurrency limit and default deadline. */
+    public <T> CompletableFuture<T> call(Callable<T> task) { return call(task, timeout); }
+
+    /** Run work under the concurrency limit with its own deadline. */
+    public <T> CompletableFuture<T> call(Callable<T> task, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            executor.execute(() -> run(task, result, deadline));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> result, long deadline) {
+        try {
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                result.completeExceptionally(new TimeoutException("No capacity before the deadline"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (!result.isDone()) result.complete(task.call());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Stops taking calls; calls already submitted still run. */
+    @Override
+    public void close() { executor.shutdown(); }
+
+    /**
+     * A virtual thread per task on Java 21+, found reflectively so the code still builds
+     * for 17; otherwise a pool of at most {@code min(maxConcurrent, 256)} daemon threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(int maxConcurrent) {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.min(maxConcurrent, MAX_PLATFORM_THREADS), r -> {
+                Thread t = new Thread(r, "library-async");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
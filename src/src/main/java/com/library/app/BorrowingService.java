@@ -1,36 +1,262 @@
 package com.library.app;
 
+import com.library.domain.event.EventRing;
 import com.library.domain.model.*;
 import com.library.domain.repository.LoanRepository;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * Borrow and return are safe to call from many threads. Availability is claimed with
+ * a compare-and-set on the book, and the rest of each operation runs under a lock
+ * striped by ISBN, so requests for different books never wait on each other while
+ * a borrow and a return of the same book are seen in one order by everyone.
+ *
+ * <p>{@link #borrowAll} and {@link #returnAll} apply a whole batch or nothing. They take
+ * the stripes of all their books in index order, so batches never deadlock with each other
+ * or with single operations, and they write the batch to the repository in one call.
+ *
+ * <p>With an {@link EventRing}, every loan made or closed is published to it once the
+ * stripe is released.
+ */
 public class BorrowingService {
+    private static final int STRIPES = 256;
+
     private final LoanRepository loanRepo;
     private final Clock clock;
+    private final Object[] stripes = new Object[STRIPES];
+    private final Consumer<Loan> onBorrow;
+    private final Consumer<Loan> onReturn;
+    private final EventRing events;
+
+    public BorrowingService(LoanRepository loanRepo, Clock clock) { this(loanRepo, clock, loan -> {}); }
 
-    public BorrowingService(LoanRepository loanRepo, Clock clock) {
-        this.loanRepo = loanRepo; this.clock = clock;
+    public BorrowingService(LoanRepository loanRepo, Clock clock, Consumer<Loan> onBorrow) {
+        this(loanRepo, clock, onBorrow, null);
+    }
+
+    public BorrowingService(LoanRepository loanRepo, Clock clock, Consumer<Loan> onBorrow, EventRing events) {
+        this(loanRepo, clock, onBorrow, loan -> {}, events);
+    }
+
+    /**
+     * @param onBorrow called with every new loan once it is recorded, outside the
+     *                 book's lock (e.g. to count circulation)
+     * @param onReturn called with every loan closed, outside the book's lock (e.g. to
+     *                 settle its fine through the return day)
+     * @param events   ring to publish loans and returns to; may be null
+     */
+    public BorrowingService(LoanRepository loanRepo, Clock clock, Consumer<Loan> onBorrow, Consumer<Loan> onReturn,
+                            EventRing events) {
+        this.loanRepo = loanRepo; this.clock = clock; this.onBorrow = onBorrow; this.onReturn = onReturn;
+        this.events = events;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Object();
     }
 
     public Loan borrow(User user, Book book) {
-        if (!book.isAvailable()) throw new IllegalStateException("Book not available.");
-        // business rule: due = today + 28 days
-        LocalDate today = LocalDate.now(clock);
-        LocalDate due = today.plusDays(28);
-        book.markBorrowed(); user.addBorrowed(book);
-        Loan loan = new Loan(user, book, today, due);
-        loanRepo.save(loan);
+        Loan loan;
+        synchronized (stripe(book)) {
+            if (!book.tryMarkBorrowed()) throw new IllegalStateException("Book not available.");
+            // business rule: due = today + 28 days
+            LocalDate today = LocalDate.now(clock);
+            LocalDate due = today.plusDays(28);
+            loan = new Loan(user, book, today, due);
+            // record the loan before the user holds the book, so a return always finds it
+            try {
+                loanRepo.save(loan);
+            } catch (RuntimeException e) {
+                book.markReturned();
+                throw e;
+            }
+            user.addBorrowed(book);
+        }
+        onBorrow.accept(loan);
+        if (events != null) events.loanCreated(loan);
         return loan;
     }
 
     public void returnBook(User user, Book book) {
-        if (!user.getBorrowed().contains(book)) throw new IllegalStateException("User doesn't have this book.");
-        book.markReturned(); user.removeBorrowed(book);
-        // Mark the most recent matching loan as returned
-        loanRepo.findAll().stream()
-                .filter(l -> !l.isReturned() && l.getUser().equals(user) && l.getBook().equals(book))
-                .reduce((a,b) -> b) // last
-                .ifPresent(Loan::markReturned);
+        Loan loan;
+        synchronized (stripe(book)) {
+            if (!user.removeBorrowed(book)) throw new IllegalStateException("User doesn't have this book.");
+            // Mark the most recent matching loan as returned
+            try {
+                loan = loanRepo.findOpenLoan(user, book).orElse(null);
+                if (loan != null) loanRepo.markReturned(loan);
+            } catch (RuntimeException e) {
+                user.addBorrowed(book);
+                throw e;
+            }
+            // release the copy last, so the next borrower never sees the old loan open
+            book.markReturned();
+        }
+        if (loan == null) return;
+        onReturn.accept(loan);
+        if (events != null) events.loanReturned(loan);
+    }
+
+    /** What happened to one item of a batch. */
+    public enum Status {
+        DONE,
+        /** The item broke a rule; {@link ItemResult#reason()} says which. */
+        FAILED,
+        /** The item was fine, but another one failed, so nothing was applied. */
+        SKIPPED
+    }
+
+    /** @param loan the loan created or closed; null unless {@code DONE} */
+    public record ItemResult(Book book, Status status, String reason, Loan loan) {}
+
+    /** @param items one per requested book, in request order */
+    public record BatchResult(boolean applied, List<ItemResult> items) {
+        public List<ItemResult> failures() {
+            return items.stream().filter(i -> i.status() == Status.FAILED).toList();
+        }
+    }
+
+    /**
+     * Lend all the books to the user, or none of them if any is unavailable or listed
+     * twice. The loans are saved with one {@link LoanRepository#saveAll} call.
+     */
+    public BatchResult borrowAll(User user, List<Book> books) {
+        String[] reasons = new String[books.size()];
+        List<Loan> loans = new ArrayList<>(books.size());
+        boolean ok = withStripes(books, () -> {
+            duplicates(books, reasons);
+            int claimed = 0;
+            if (!failed(reasons)) {
+                while (claimed < books.size() && books.get(claimed).tryMarkBorrowed()) claimed++;
+                if (claimed < books.size()) reasons[claimed] = "Book not available.";
+            }
+            if (claimed < books.size()) {
+                for (int i = claimed; i < books.size(); i++) {
+                    if (reasons[i] == null && !books.get(i).isAvailable()) reasons[i] = "Book not available.";
+                }
+                for (int i = 0; i < claimed; i++) books.get(i).markReturned();
+                return false;
+            }
+            LocalDate today = LocalDate.now(clock);
+            for (Book b : books) loans.add(new Loan(user, b, today, today.plusDays(28)));
+            try {
+                loanRepo.saveAll(loans);
+            } catch (RuntimeException e) {
+                for (Book b : books) b.markReturned();
+                throw e;
+            }
+            user.addAllBorrowed(books);
+            return true;
+        });
+        if (ok) {
+            loans.forEach(onBorrow);
+            if (events != null) loans.forEach(events::loanCreated);
+        }
+        return result(books, ok, reasons, loans);
+    }
+
+    /**
+     * Take back all the books from the user, or none of them if the user does not hold
+     * one or it is listed twice. The returns are logged with one
+     * {@link LoanRepository#markAllReturned} call.
+     */
+    public BatchResult returnAll(User user, List<Book> books) {
+        return returnAll(Collections.nCopies(books.size(), user), books);
+    }
+
+    /**
+     * Book-drop returns: each book is taken back from whoever has it open on loan. All or
+     * nothing, as {@link #returnAll(User, List)}.
+     */
+    public BatchResult returnAll(List<Book> books) {
+        List<User> users = new ArrayList<>(books.size());
+        for (Book b : books) users.add(openLoan(b).map(Loan::getUser).orElse(null));
+        return returnAll(users, books);
+    }
+
+    private BatchResult returnAll(List<User> users, List<Book> books) {
+        String[] reasons = new String[books.size()];
+        List<Loan> loans = new ArrayList<>(books.size());
+        boolean ok = withStripes(books, () -> {
+            duplicates(books, reasons);
+            for (int i = 0; i < books.size(); i++) {
+                User u = users.get(i);
+                if (reasons[i] == null && (u == null || !u.getBorrowed().contains(books.get(i)))) {
+                    reasons[i] = u == null ? "Book is not on loan." : "User doesn't have this book.";
+                }
+            }
+            if (failed(reasons)) return false;
+            Map<User, List<Book>> byUser = new IdentityHashMap<>();
+            for (int i = 0; i < books.size(); i++) {
+                byUser.computeIfAbsent(users.get(i), u -> new ArrayList<>()).add(books.get(i));
+                loans.add(loanRepo.findOpenLoan(users.get(i), books.get(i)).orElse(null));
+            }
+            // log first; stores close the loans only once that succeeds, so a failed write
+            // leaves loans, users and books as they were
+            loanRepo.markAllReturned(loans.stream().filter(l -> l != null).toList());
+            byUser.forEach(User::removeAllBorrowed);
+            // release the copies last, as returnBook does
+            for (Book b : books) b.markReturned();
+            return true;
+        });
+        if (ok) {
+            for (Loan l : loans) if (l != null) onReturn.accept(l);
+            if (events != null) for (Loan l : loans) if (l != null) events.loanReturned(l);
+        }
+        return result(books, ok, reasons, loans);
+    }
+
+    private Optional<Loan> openLoan(Book book) {
+        List<Loan> all = loanRepo.findByBook(book);
+        for (int i = all.size() - 1; i >= 0; i--) if (!all.get(i).isReturned()) return Optional.of(all.get(i));
+        return Optional.empty();
+    }
+
+    private static void duplicates(List<Book> books, String[] reasons) {
+        Set<Book> seen = new HashSet<>();
+        for (int i = 0; i < books.size(); i++) if (!seen.add(books.get(i))) reasons[i] = "Book listed twice.";
+    }
+
+    private static boolean failed(String[] reasons) {
+        for (String r : reasons) if (r != null) return true;
+        return false;
+    }
+
+    private static BatchResult result(List<Book> books, boolean applied, String[] reasons, List<Loan> loans) {
+        List<ItemResult> items = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            if (applied) items.add(new ItemResult(books.get(i), Status.DONE, null, loans.get(i)));
+            else if (reasons[i] != null) items.add(new ItemResult(books.get(i), Status.FAILED, reasons[i], null));
+            else items.add(new ItemResult(books.get(i), Status.SKIPPED, null, null));
+        }
+        return new BatchResult(applied, items);
+    }
+
+    /** Run body holding the stripes of all the books, taken in ascending order. */
+    private <T> T withStripes(List<Book> books, Supplier<T> body) {
+        int[] idx = books.stream().mapToInt(this::stripeIndex).sorted().distinct().toArray();
+        return nested(idx, 0, body);
+    }
+
+    private <T> T nested(int[] idx, int i, Supplier<T> body) {
+        if (i == idx.length) return body.get();
+        synchronized (stripes[idx[i]]) {
+            return nested(idx, i + 1, body);
+        }
+    }
+
+    private Object stripe(Book book) { return stripes[stripeIndex(book)]; }
+
+    private int stripeIndex(Book book) {
+        int h = book.getIsbn().hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
     }
 }
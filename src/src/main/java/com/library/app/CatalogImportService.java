@@ -0,0 +1,261 @@
+package com.library.app;
+
+import com.library.domain.model.Admin;
+import com.library.domain.model.Book;
+import com.library.domain.search.TermDictionary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams a delimited catalog feed into a {@link CatalogService}.
+ *
+ * <p>One thread reads the file and cuts it into chunks of records; a pool parses the
+ * chunks in parallel, and each parsed chunk is inserted as one batch in file order. At
+ * most two chunks per parser thread are in flight at a time, so memory stays bounded
+ * however large the file is. Author names are taken from the index's author dictionary,
+ * so books by the same author share one {@code String}.
+ *
+ * <p>Two formats are understood: {@link Format#CSV} (RFC 4180 quoting, optional
+ * {@code title,author,isbn} header) and {@link Format#PIPE}, the {@code Title|Author|ISBN}
+ * lines the CLI {@code add} command takes. A quoted CSV field may span lines, up to
+ * {@link #MAX_RECORD_LINES}; a quote still open after that many is rejected on its own
+ * line and reading resumes with the next.
+ */
+public class CatalogImportService {
+    public static final int DEFAULT_CHUNK = 10_000;
+    /** Rejects kept in a {@link Result}; the rest are only counted. */
+    public static final int MAX_REJECTS_KEPT = 1_000;
+    /** Most lines one CSV record may span. */
+    public static final int MAX_RECORD_LINES = 100;
+
+    public enum Format {
+        CSV, PIPE;
+
+        /** CSV for {@code .csv} files, the pipe format otherwise. */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : PIPE;
+        }
+    }
+
+    public record Progress(long records, long imported, long duplicates, long rejected) {}
+    public record Reject(long line, String reason, String text) {}
+    public record Result(long records, long imported, long duplicates, long rejected, List<Reject> rejects) {}
+
+    private final CatalogService catalog;
+    private final int threads;
+    private final int chunk;
+
+    public CatalogImportService(CatalogService catalog) {
+        this(catalog, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK);
+    }
+
+    public CatalogImportService(CatalogService catalog, int threads, int chunk) {
+        if (threads < 1 || chunk < 1) throw new IllegalArgumentException("threads and chunk must be positive");
+        this.catalog = catalog;
+        this.threads = threads;
+        this.chunk = chunk;
+    }
+
+    public Result importFile(Admin admin, Path file, Consumer<Progress> progress) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(admin, in, Format.of(file), progress);
+        }
+    }
+
+    /**
+     * Import every record read from {@code in}. Progress is reported after each batch is
+     * inserted.
+     */
+    public Result importFrom(Admin admin, Reader in, Format format, Consumer<Progress> progress) throws IOException {
+        if (!admin.isLoggedIn()) {
+            throw new IllegalStateException("Admin must be logged in.");
+        }
+        BufferedReader reader = in instanceof BufferedReader b ? b : new BufferedReader(in, 1 << 16);
+        Tally tally = new Tally(progress);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "catalog-import");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<Parsed>> inFlight = new ArrayDeque<>();
+        try {
+            Lines lines = new Lines(reader);
+            if (format == Format.CSV) skipHeader(lines);
+            Chunk c;
+            while ((c = readChunk(lines, format)) != null) {
+                Chunk parse = c;
+                inFlight.add(pool.submit(() -> parse(parse, format, catalog.getIndex().authors())));
+                if (inFlight.size() >= 2 * threads) tally.insert(admin, await(inFlight.poll()));
+            }
+            while (!inFlight.isEmpty()) tally.insert(admin, await(inFlight.poll()));
+        } finally {
+            pool.shutdownNow();
+        }
+        return tally.result();
+    }
+
+    // ===== Reading (single thread) =====
+
+    private record Chunk(List<String> records, long[] lines) {}
+    private record Parsed(List<Book> books, List<Reject> rejects) {}
+
+    /**
+     * Next chunk of raw records, joining CSV lines that end inside a quoted field. A quote
+     * still open after {@link #MAX_RECORD_LINES} lines, or at the end of the file, is left
+     * on its own line, which the parser rejects, and the lines read past it are read again.
+     */
+    private Chunk readChunk(Lines in, Format format) throws IOException {
+        List<String> records = new ArrayList<>(chunk);
+        long[] lines = new long[chunk];
+        String l;
+        while (records.size() < chunk && (l = in.next()) != null) {
+            long start = in.number;
+            if (format == Format.CSV && oddQuotes(l)) {
+                List<String> more = new ArrayList<>();
+                boolean open = true;
+                String next;
+                while (open && more.size() < MAX_RECORD_LINES - 1 && (next = in.next()) != null) {
+                    more.add(next);
+                    open = oddQuotes(next) != open;
+                }
+                if (open) in.pushBack(more);
+                else l = l + '\n' + String.join("\n", more);
+            }
+            if (l.isBlank()) continue;
+            lines[records.size()] = start;
+            records.add(l);
+        }
+        return records.isEmpty() ? null : new Chunk(records, lines);
+    }
+
+    private static boolean oddQuotes(String s) {
+        int quotes = 0;
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) == '"') quotes++;
+        return (quotes & 1) == 1;
+    }
+
+    private static void skipHeader(Lines in) throws IOException {
+        String first = in.next();
+        if (first != null && !first.replace(" ", "").replace("\"", "").equalsIgnoreCase("title,author,isbn")) {
+            in.pushBack(List.of(first));
+        }
+    }
+
+    /** The feed's lines, numbered from 1, with lines read ahead of a bad record handed out again. */
+    private static final class Lines {
+        private final BufferedReader in;
+        private final ArrayDeque<String> again = new ArrayDeque<>();
+        /** Number of the line last handed out. */
+        long number;
+
+        Lines(BufferedReader in) { this.in = in; }
+
+        String next() throws IOException {
+            String l = again.isEmpty() ? in.readLine() : again.poll();
+            if (l != null) number++;
+            return l;
+        }
+
+        /** Hand out {@code lines}, the ones just read, again. */
+        void pushBack(List<String> lines) {
+            for (int i = lines.size() - 1; i >= 0; i--) again.addFirst(lines.get(i));
+            number -= lines.size();
+        }
+    }
+
+    // ===== Parsing (pool threads) =====
+
+    private static Parsed parse(Chunk c, Format format, TermDictionary authors) {
+        List<Book> books = new ArrayList<>(c.records.size());
+        List<Reject> rejects = new ArrayList<>();
+        for (int k = 0; k < c.records.size(); k++) {
+            String r = c.records.get(k);
+            List<String> f = format == Format.CSV ? csvFields(r) : List.of(r.split("\\|", -1));
+            String reason;
+            if (f == null) reason = "unterminated quote";
+            else if (f.size() != 3) reason = "expected 3 fields, found " + f.size();
+            else if (f.get(0).isBlank()) reason = "empty title";
+            else if (f.get(1).isBlank()) reason = "empty author";
+            else if (f.get(2).isBlank()) reason = "empty ISBN";
+            else {
+                books.add(new Book(f.get(0).trim(), authors.canonical(f.get(1).trim()), f.get(2).trim()));
+                continue;
+            }
+            rejects.add(new Reject(c.lines[k], reason, r));
+        }
+        return new Parsed(books, rejects);
+    }
+
+    /** Fields of one CSV record, or null when a quoted field is never closed. */
+    static List<String> csvFields(String r) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder f = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < r.length(); i++) {
+            char ch = r.charAt(i);
+            if (quoted) {
+                if (ch != '"') f.append(ch);
+                else if (i + 1 < r.length() && r.charAt(i + 1) == '"') { f.append('"'); i++; }
+                else quoted = false;
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(f.toString());
+                f.setLength(0);
+            } else {
+                f.append(ch);
+            }
+        }
+        if (quoted) return null;
+        fields.add(f.toString());
+        return fields;
+    }
+
+    private static Parsed await(Future<Parsed> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // ===== Inserting (reader thread, file order) =====
+
+    private final class Tally {
+        final Consumer<Progress> progress;
+        final List<Reject> rejects = new ArrayList<>();
+        long records, imported, duplicates, rejected;
+
+        Tally(Consumer<Progress> progress) { this.progress = progress; }
+
+        void insert(Admin admin, Parsed p) {
+            int added = catalog.addBooks(admin, p.books);
+            records += p.books.size() + p.rejects.size();
+            imported += added;
+            duplicates += p.books.size() - added;
+            rejected += p.rejects.size();
+            for (Reject r : p.rejects) if (rejects.size() < MAX_REJECTS_KEPT) rejects.add(r);
+            if (progress != null) progress.accept(new Progress(records, imported, duplicates, rejected));
+        }
+
+        Result result() {
+            return new Result(records, imported, duplicates, rejected, Collections.unmodifiableList(rejects));
+        }
+    }
+}
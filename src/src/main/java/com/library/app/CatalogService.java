@@ -3,14 +3,117 @@ package com.library.app;
 
 import com.library.domain.model.Admin;
 import com.library.domain.model.Book;
+import com.library.domain.repository.BookRepository;
+import com.library.domain.search.Autocomplete;
+import com.library.domain.search.CatalogIndex;
+import com.library.domain.search.FuzzyMatcher;
+import com.library.domain.search.SearchCache;
+import com.library.domain.search.SearchPage;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CatalogService {
+    private final BookRepository bookRepo;
+    private final CatalogIndex index;
+    private final Autocomplete autocomplete;
+    private final SearchCache cache;
 
-    public boolean addBook(Admin admin, List<Book> catalog, Book book) {
+    public CatalogService(BookRepository bookRepo) { this(bookRepo, new CatalogIndex()); }
+    public CatalogService(BookRepository bookRepo, CatalogIndex index) { this(bookRepo, index, new Autocomplete()); }
+    public CatalogService(BookRepository bookRepo, CatalogIndex index, Autocomplete autocomplete) {
+        this(bookRepo, index, autocomplete, new SearchCache());
+    }
+    public CatalogService(BookRepository bookRepo, CatalogIndex index, Autocomplete autocomplete, SearchCache cache) {
+        this.bookRepo = bookRepo; this.index = index; this.autocomplete = autocomplete; this.cache = cache;
+    }
+
+    /**
+     * Add a book to the catalog. A book whose ISBN is already in the catalog is ignored.
+     *
+     * @return true if the book was added
+     */
+    public boolean addBook(Admin admin, Book book) {
+        if (!admin.isLoggedIn()) {
+            throw new IllegalStateException("Admin must be logged in.");
+        }
+        boolean added = bookRepo.saveIfAbsent(book);
+        if (added) {
+            Book b = stored(book);
+            index.add(b);
+            autocomplete.add(b);
+            cache.invalidate(b);
+        }
+        return added;
+    }
+
+    /**
+     * Add a batch of books, indexing all newly added ones in one step. Books whose ISBN is
+     * already in the catalog, or earlier in the batch, are ignored.
+     *
+     * @return number of books added
+     */
+    public int addBooks(Admin admin, List<Book> books) {
         if (!admin.isLoggedIn()) {
             throw new IllegalStateException("Admin must be logged in.");
         }
-        return catalog.add(book);
+        List<Book> added = new ArrayList<>(books.size());
+        for (Book b : books) {
+            if (bookRepo.saveIfAbsent(b)) added.add(stored(b));
+        }
+        index.addAll(added);
+        autocomplete.addAll(added);
+        cache.invalidate(added);
+        return added.size();
+    }
+
+    /**
+     * Index books that are already in the repository but not searchable yet, such as those
+     * of a mapped catalog snapshot, so they can be indexed after startup.
+     */
+    public void indexAll(List<Book> books) {
+        index.addAll(books);
+        autocomplete.addAll(books);
+        cache.invalidate(books);
     }
+
+    public List<Book> search(String query) {
+        return index.search(query);
+    }
+
+    /**
+     * One page of relevance-ranked results; see {@link CatalogIndex#search(String, int, int)}.
+     * Pages are served from the {@link SearchCache} when the same page was asked for before.
+     */
+    public SearchPage search(String query, int offset, int limit) {
+        return cache.get(SearchCache.Query.exact(query, offset, limit), () -> index.search(query, offset, limit));
+    }
+
+    /**
+     * One page of typo-tolerant results, allowing {@link FuzzyMatcher#defaultEdits} edits
+     * for the query's length; see {@link CatalogIndex#fuzzySearch}.
+     */
+    public SearchPage fuzzySearch(String query, int offset, int limit) {
+        int edits = FuzzyMatcher.defaultEdits(query.length());
+        return cache.get(SearchCache.Query.fuzzy(query, edits, offset, limit),
+                () -> index.fuzzySearch(query, edits, offset, limit));
+    }
+
+    /**
+     * Titles and authors with a word starting with {@code prefix}, most borrowed first.
+     *
+     * @param n at most this many (capped at {@link Autocomplete#DEFAULT_KEEP} by default)
+     */
+    public List<Autocomplete.Suggestion> suggest(String prefix, int n) {
+        return autocomplete.suggest(prefix, n);
+    }
+
+    /** Count a loan of the book towards its title's and author's suggestion rank. */
+    public void recordLoan(Book book) { autocomplete.recordLoan(book); }
+
+    public CatalogIndex getIndex() { return index; }
+
+    public SearchCache.Stats cacheStats() { return cache.stats(); }
+
+    // repositories may keep their own copy (e.g. a columnar view); index that one
+    private Book stored(Book book) { return bookRepo.findByIsbn(book.getIsbn()).orElse(book); }
 }
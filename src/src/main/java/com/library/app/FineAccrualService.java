@@ -0,0 +1,160 @@
+package com.library.app;
+
+import com.library.domain.event.EventRing;
+import com.library.domain.model.Loan;
+import com.library.domain.repository.FineRepository;
+import com.library.domain.repository.FineRepository.Accrual;
+import com.library.domain.repository.LoanRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Daily overdue-fine accrual. A run takes the open loans due before today, works out
+ * for each what it owes through today under the {@link Policy} less what it owed through
+ * the day it was last fined, and posts the differences in bulk.
+ *
+ * <p>The overdue loans are cut into partitions of consecutive loans, which fork-join
+ * workers price in parallel and post with one {@link FineRepository#accrueAll} call
+ * each. Every loan carries the day it is fined through, and a posting only applies if
+ * that day has not moved since it was priced, so each (loan, day) is charged once:
+ * running twice in a day, two runs at once, or running again after a crash part-way
+ * through charges nothing twice. With a durable fine store each partition is logged as
+ * one record, so a crash loses whole partitions, which the next run charges. Runs only
+ * see open loans, so a loan being returned is {@linkplain #settle settled} through the
+ * return day under the same guard.
+ */
+public class FineAccrualService {
+    public static final int DEFAULT_PARTITION = 65_536;
+    /** 1 NIS a day, at most 50 NIS a loan. */
+    public static final Policy DEFAULT_POLICY = new Policy(100, 5_000);
+
+    /**
+     * @param agorotPerDay charged for every day past the due date
+     * @param capAgorot    the most one loan is ever charged
+     */
+    public record Policy(long agorotPerDay, long capAgorot) {
+        public Policy {
+            if (agorotPerDay < 0 || capAgorot < 0) throw new IllegalArgumentException("Fine rate and cap must not be negative.");
+        }
+
+        /** Total owed after this many overdue days. */
+        public long owed(long days) {
+            if (days <= 0 || agorotPerDay == 0) return 0;
+            return days > capAgorot / agorotPerDay ? capAgorot : days * agorotPerDay; // no overflow below the cap
+        }
+    }
+
+    /**
+     * @param overdue loans found overdue
+     * @param charged loans this run charged; the others were capped or already charged
+     */
+    public record Run(LocalDate day, int overdue, long charged, long agorot) {}
+
+    private final LoanRepository loanRepo;
+    private final FineRepository fineRepo;
+    private final Clock clock;
+    private final Policy policy;
+    private final ForkJoinPool pool;
+    private final int partition;
+    private final EventRing events;
+
+    public FineAccrualService(LoanRepository loanRepo, FineRepository fineRepo, Clock clock, Policy policy) {
+        this(loanRepo, fineRepo, clock, policy, ForkJoinPool.commonPool(), DEFAULT_PARTITION, null);
+    }
+
+    /**
+     * @param pool      pool whose parallelism bounds the workers
+     * @param partition loans priced and posted together
+     * @param events    ring to publish each loan's charge to; may be null
+     */
+    public FineAccrualService(LoanRepository loanRepo, FineRepository fineRepo, Clock clock, Policy policy,
+                              ForkJoinPool pool, int partition, EventRing events) {
+        if (partition < 1) throw new IllegalArgumentException("partition must be positive: " + partition);
+        this.loanRepo = loanRepo; this.fineRepo = fineRepo; this.clock = clock; this.policy = policy;
+        this.pool = pool; this.partition = partition; this.events = events;
+    }
+
+    public Policy policy() { return policy; }
+
+    /** Charge every overdue loan through the clock's today. */
+    public Run accrue() { return accrueThrough(LocalDate.now(clock)); }
+
+    /** Charge every loan overdue on {@code day} through that day. */
+    public Run accrueThrough(LocalDate day) {
+        return accrue(day, loanRepo.findOpenDueBefore(day));
+    }
+
+    /** Charge a returned loan for the overdue days since it was last fined, through the clock's today. */
+    public Run settle(Loan loan) {
+        Run run = accrue(LocalDate.now(clock), List.of(loan));
+        fineRepo.settled(loan);
+        return run;
+    }
+
+    /** Charge the given loans, such as one slice of the overdue list, through {@code day}. */
+    public Run accrue(LocalDate day, List<Loan> loans) {
+        long today = day.toEpochDay();
+        var tally = new Tally();
+        if (loans.size() <= partition || pool.getParallelism() < 2) {
+            for (int from = 0; from < loans.size(); from += partition) {
+                post(loans, from, Math.min(loans.size(), from + partition), today, tally);
+            }
+        } else {
+            pool.invoke(new Partition(loans, 0, loans.size(), today, tally));
+        }
+        return new Run(day, loans.size(), tally.charged.sum(), tally.agorot.sum());
+    }
+
+    private void post(List<Loan> loans, int from, int to, long today, Tally tally) {
+        List<Accrual> batch = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Loan loan = loans.get(i);
+            long through = fineRepo.finedThrough(loan);
+            if (through >= today) continue;
+            long due = loan.getDueDate().toEpochDay();
+            long agorot = policy.owed(today - due) - policy.owed(through - due);
+            if (agorot > 0) batch.add(new Accrual(loan, through, today, agorot));
+        }
+        if (batch.isEmpty()) return;
+        long charged = 0, agorot = 0;
+        for (Accrual a : fineRepo.accrueAll(batch)) {
+            charged++;
+            agorot += a.agorot();
+            if (events != null) events.fineAccrued(a.loan().getUser(), a.agorot());
+        }
+        tally.charged.add(charged);
+        tally.agorot.add(agorot);
+    }
+
+    private static final class Tally {
+        final LongAdder charged = new LongAdder();
+        final LongAdder agorot = new LongAdder();
+    }
+
+    private final class Partition extends RecursiveAction {
+        private final List<Loan> loans;
+        private final int from, to;
+        private final long today;
+        private final Tally tally;
+
+        Partition(List<Loan> loans, int from, int to, long today, Tally tally) {
+            this.loans = loans; this.from = from; this.to = to; this.today = today; this.tally = tally;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > partition) {
+                int mid = from + (to - from) / 2;
+                invokeAll(new Partition(loans, from, mid, today, tally), new Partition(loans, mid, to, today, tally));
+                return;
+            }
+            post(loans, from, to, today, tally);
+        }
+    }
+}
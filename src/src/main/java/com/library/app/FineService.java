@@ -1,26 +1,43 @@
 package com.library.app;
 
+import com.library.domain.event.EventRing;
 import com.library.domain.model.Fine;
 import com.library.domain.model.User;
 import com.library.domain.repository.FineRepository;
 
+/**
+ * Fines are posted to the repository ledger in agorot; the double methods take and
+ * return NIS. All methods are safe to call concurrently. With an {@link EventRing}, every
+ * accrual and every payment that applied something is published to it.
+ */
 public class FineService {
     private final FineRepository fineRepo;
-    public FineService(FineRepository fineRepo) { this.fineRepo = fineRepo; }
+    private final EventRing events;
 
-    public void addFine(User user, double amount) {
-        Fine f = fineRepo.findByUser(user).orElse(new Fine(user, 0));
-        f = new Fine(user, f.getAmount() + amount);
-        fineRepo.save(f);
-    }
+    public FineService(FineRepository fineRepo) { this(fineRepo, null); }
+
+    /** @param events ring to publish fines and payments to; may be null */
+    public FineService(FineRepository fineRepo, EventRing events) { this.fineRepo = fineRepo; this.events = events; }
+
+    public void addFine(User user, double amount) { addFineAgorot(user, Fine.toAgorot(amount)); }
 
-    public void pay(User user, double amount) {
-        Fine f = fineRepo.findByUser(user).orElse(new Fine(user, 0));
-        f.pay(amount);
-        fineRepo.save(f);
+    public void addFineAgorot(User user, long agorot) {
+        if (agorot < 0) throw new IllegalArgumentException("Fine amount must not be negative.");
+        fineRepo.accrue(user, agorot);
+        if (events != null) events.fineAccrued(user, agorot);
     }
 
-    public double balance(User user) {
-        return fineRepo.findByUser(user).map(Fine::getAmount).orElse(0.0);
+    public void pay(User user, double amount) { payAgorot(user, Fine.toAgorot(amount)); }
+
+    /** @return the amount actually applied, at most the outstanding balance */
+    public long payAgorot(User user, long agorot) {
+        if (agorot < 0) throw new IllegalArgumentException("Payment must not be negative.");
+        long applied = fineRepo.pay(user, agorot);
+        if (events != null && applied > 0) events.finePaid(user, applied);
+        return applied;
     }
+
+    public double balance(User user) { return fineRepo.balance(user) / 100.0; }
+
+    public long balanceAgorot(User user) { return fineRepo.balance(user); }
 }
@@ -0,0 +1,197 @@
+package com.library.app;
+
+import com.library.domain.model.Loan;
+import com.library.domain.repository.LoanRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Streams loans from a {@link LoanRepository} straight into a file through one reused
+ * direct buffer, so memory use does not grow with the size of the history.
+ *
+ * <p>{@link Format#CSV} writes a header and one line per loan:
+ * {@code user_id,user_name,isbn,title,author,borrow_date,due_date,returned}.
+ * {@link Format#BINARY} writes a 24-byte header (magic {@code "LIBLOAN1"}, int version,
+ * int reserved, long record count) followed by one record per loan: u16 length + UTF-8
+ * for user id, user name, ISBN, title and author, then int borrow and due epoch days and
+ * one returned byte, all big-endian.
+ *
+ * <p>The file is written next to the target and moved over it once complete.
+ */
+public class LoanExportService {
+    public static final long BINARY_MAGIC = 0x4C49424C4F414E31L; // "LIBLOAN1"
+    public static final int BINARY_VERSION = 1;
+
+    public enum Format {
+        CSV, BINARY;
+
+        /** BINARY for {@code .bin} files, CSV otherwise. */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".bin") ? BINARY : CSV;
+        }
+    }
+
+    public enum Status { ALL, OPEN, RETURNED }
+
+    /**
+     * Which loans to export. Borrow dates are compared inclusively; a null bound is open.
+     */
+    public record Filter(LocalDate from, LocalDate to, Status status) implements Predicate<Loan> {
+        public static final Filter ALL = new Filter(null, null, Status.ALL);
+
+        public boolean test(Loan l) {
+            if (from != null && l.getBorrowDate().isBefore(from)) return false;
+            if (to != null && l.getBorrowDate().isAfter(to)) return false;
+            return switch (status) {
+                case ALL -> true;
+                case OPEN -> !l.isReturned();
+                case RETURNED -> l.isReturned();
+            };
+        }
+    }
+
+    private static final int BUFFER = 1 << 18;
+
+    private final LoanRepository loans;
+
+    public LoanExportService(LoanRepository loans) { this.loans = loans; }
+
+    /** Export in the format implied by the file name. */
+    public long export(Path file, Filter filter) throws IOException {
+        return export(file, Format.of(file), filter);
+    }
+
+    /**
+     * @return number of loans written
+     */
+    public long export(Path file, Format format, Filter filter) throws IOException {
+        // a temporary file of its own, so exports to the same target never share one
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+        long n;
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                Out out = new Out(ch);
+                n = format == Format.CSV ? writeCsv(out, filter) : writeBinary(out, filter);
+                out.drain();
+                if (format == Format.BINARY) ch.write(ByteBuffer.allocate(8).putLong(0, n), 16);
+                ch.force(false);
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return n;
+    }
+
+    private long writeCsv(Out out, Filter filter) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        line.append("user_id,user_name,isbn,title,author,borrow_date,due_date,returned\n");
+        out.text(line);
+        long n = 0;
+        for (Iterator<Loan> it = loans.stream().filter(filter).iterator(); it.hasNext(); n++) {
+            Loan l = it.next();
+            line.setLength(0);
+            csv(line, l.getUser().getId()).append(',');
+            csv(line, l.getUser().getName()).append(',');
+            csv(line, l.getBook().getIsbn()).append(',');
+            csv(line, l.getBook().getTitle()).append(',');
+            csv(line, l.getBook().getAuthor()).append(',');
+            line.append(l.getBorrowDate()).append(',').append(l.getDueDate()).append(',').append(l.isReturned()).append('\n');
+            out.text(line);
+        }
+        return n;
+    }
+
+    private long writeBinary(Out out, Filter filter) throws IOException {
+        out.room(24).putLong(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(0).putLong(0); // count patched at the end
+        long n = 0;
+        for (Iterator<Loan> it = loans.stream().filter(filter).iterator(); it.hasNext(); n++) {
+            Loan l = it.next();
+            out.utf(l.getUser().getId());
+            out.utf(l.getUser().getName());
+            out.utf(l.getBook().getIsbn());
+            out.utf(l.getBook().getTitle());
+            out.utf(l.getBook().getAuthor());
+            out.room(9).putInt(Math.toIntExact(l.getBorrowDate().toEpochDay()))
+                    .putInt(Math.toIntExact(l.getDueDate().toEpochDay()))
+                    .put((byte) (l.isReturned() ? 1 : 0));
+        }
+        return n;
+    }
+
+    private static StringBuilder csv(StringBuilder sb, String v) {
+        boolean quote = false;
+        for (int i = 0; i < v.length() && !quote; i++) {
+            char c = v.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return sb.append(v);
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    /** Direct buffer over the channel; drained whenever the next write does not fit. */
+    private static final class Out {
+        final FileChannel ch;
+        final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+        final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        Out(FileChannel ch) { this.ch = ch; }
+
+        ByteBuffer room(int bytes) throws IOException {
+            if (buf.remaining() < bytes) drain();
+            return buf;
+        }
+
+        void text(CharSequence s) throws IOException {
+            CharBuffer in = CharBuffer.wrap(s);
+            utf8.reset();
+            while (true) {
+                CoderResult r = utf8.encode(in, buf, true);
+                if (!r.isOverflow()) break;
+                drain();
+            }
+            while (utf8.flush(buf).isOverflow()) drain();
+        }
+
+        void utf(String s) throws IOException {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            if (b.length > 0xFFFF) throw new IOException("Field longer than 65535 bytes");
+            room(2).putShort((short) b.length);
+            for (int off = 0; off < b.length; ) {
+                if (!buf.hasRemaining()) drain();
+                int len = Math.min(buf.remaining(), b.length - off);
+                buf.put(b, off, len);
+                off += len;
+            }
+        }
+
+        void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.app.schedule;
+
+import com.library.app.FineAccrualService;
+import com.library.domain.model.Loan;
+import com.library.domain.repository.LoanRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A sweep over open loans in due-date order, one due day at a time. The checkpoint is the
+ * last due day handled, so each run asks the repository only for the loans due after it,
+ * a week of due days at a time, and a run that reaches its deadline stops between two days.
+ *
+ * <p>A one-pass sweep never goes back: each loan is handled once, when its due day enters
+ * the window (newly overdue loans, reminders). A daily sweep starts over from the oldest
+ * due day on every new day (fine accrual).
+ */
+public final class DueDateSweep implements Sweep {
+    // due days fetched from the repository at a time, so a run's cost follows its time limit
+    private static final int CHUNK_DAYS = 7;
+
+    private final String name;
+    private final LoanRepository loans;
+    // the window ends on today plus this many days
+    private final int lastDayOffset;
+    // a pass with no checkpoint starts today rather than at the oldest loan
+    private final boolean startToday;
+    private final boolean daily;
+    private final BiConsumer<LocalDate, List<Loan>> action;
+
+    private DueDateSweep(String name, LoanRepository loans, int lastDayOffset, boolean startToday, boolean daily,
+                         BiConsumer<LocalDate, List<Loan>> action) {
+        this.name = name; this.loans = loans; this.lastDayOffset = lastDayOffset; this.startToday = startToday;
+        this.daily = daily; this.action = action;
+    }
+
+    /** Hands each loan to {@code onOverdue} once, the first run after its due date. */
+    public static DueDateSweep overdue(LoanRepository loans, Consumer<Loan> onOverdue) {
+        return new DueDateSweep("overdue", loans, -1, false, false, (today, due) -> due.forEach(onOverdue));
+    }
+
+    /** Charges every overdue loan through today, once a day. */
+    public static DueDateSweep accrual(LoanRepository loans, Supplier<FineAccrualService> accrual) {
+        return new DueDateSweep("accrual", loans, -1, false, true, (today, due) -> accrual.get().accrue(today, due));
+    }
+
+    /**
+     * Hands each loan to {@code remind} once, when it is due within {@code daysAhead} days.
+     * Loans already overdue when the sweep first runs are left to the overdue sweep.
+     */
+    public static DueDateSweep reminders(LoanRepository loans, int daysAhead, Consumer<Loan> remind) {
+        if (daysAhead < 0) throw new IllegalArgumentException("daysAhead must not be negative: " + daysAhead);
+        return new DueDateSweep("reminders", loans, daysAhead, true, false, (today, due) -> due.forEach(remind));
+    }
+
+    @Override
+    public String name() { return name; }
+
+    @Override
+    public Result run(LocalDate today, Checkpoint from, long deadline) {
+        long day = today.toEpochDay();
+        long last = day + lastDayOffset;
+        long position = daily && from.day() != day ? Checkpoint.START.position() : from.position();
+        if (position == Checkpoint.START.position()) {
+            if (startToday) {
+                position = day - 1;
+            } else {
+                Optional<LocalDate> first = loans.findFirstOpenDueDate();
+                position = first.isEmpty() ? last : Math.min(last, first.get().toEpochDay() - 1);
+            }
+        }
+        long processed = 0;
+        while (position < last) {
+            long hi = Math.min(last, position + CHUNK_DAYS);
+            List<Loan> chunk = loans.findOpenDueBetween(LocalDate.ofEpochDay(position + 1), LocalDate.ofEpochDay(hi + 1));
+            for (int i = 0; i < chunk.size(); ) {
+                long due = chunk.get(i).getDueDate().toEpochDay();
+                int end = i;
+                while (end < chunk.size() && chunk.get(end).getDueDate().toEpochDay() == due) end++;
+                action.accept(today, chunk.subList(i, end));
+                processed += end - i;
+                position = end == chunk.size() ? hi : due;
+                i = end;
+                if (System.nanoTime() - deadline >= 0) return new Result(new Checkpoint(day, position), processed, position >= last);
+            }
+            position = hi;
+        }
+        return new Result(new Checkpoint(day, Math.max(position, last)), processed, true);
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.app.schedule;
+
+import java.time.LocalDate;
+
+/**
+ * Periodic background work that {@link SweepScheduler} runs in time-limited slices. Each
+ * run picks up after the checkpoint the previous one returned, so a sweep cut short by
+ * its time limit, a pause or a restart carries on where it stopped.
+ */
+public interface Sweep {
+    /** Unique among the scheduler's sweeps; names the checkpoint too. */
+    String name();
+
+    /**
+     * @param today    the library's current day
+     * @param from     the checkpoint of the last run, or {@link Checkpoint#START}
+     * @param deadline {@link System#nanoTime()} by which to stop; work is cut at a unit boundary
+     */
+    Result run(LocalDate today, Checkpoint from, long deadline);
+
+    /**
+     * Progress of a sweep.
+     *
+     * @param day      the day the sweep's pass was for
+     * @param position last unit processed in that pass, such as a due date as an epoch day
+     */
+    record Checkpoint(long day, long position) {
+        /** Nothing processed yet. */
+        public static final Checkpoint START = new Checkpoint(Long.MIN_VALUE, Long.MIN_VALUE);
+    }
+
+    /**
+     * @param processed items handled in this run
+     * @param caughtUp  false when the run stopped at its deadline with work left
+     */
+    record Result(Checkpoint checkpoint, long processed, boolean caughtUp) {}
+}
@@ -0,0 +1,224 @@
+package com.library.app.schedule;
+
+import com.library.app.schedule.Sweep.Checkpoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link Sweep}s in the background on one low-priority daemon thread of a
+ * {@link ScheduledExecutorService}, one sweep at a time.
+ *
+ * <p>Each sweep runs every period plus a random jitter, so sweeps that share a period
+ * drift apart instead of firing together. A run gets a time limit and hands back a
+ * checkpoint, which the next run resumes from; a run stopped by its limit is followed
+ * shortly by another, until the sweep has caught up. With a checkpoint file, checkpoints
+ * are rewritten after every run and reloaded on start, so sweeps also resume across
+ * restarts. Paused sweeps skip their runs until resumed.
+ *
+ * <p>Sweeps take none of the locks borrow and return use, and stop at their time limit,
+ * so interactive traffic keeps its latency while they run.
+ */
+public class SweepScheduler implements AutoCloseable {
+    /** Delay before the next slice of a sweep that stopped at its time limit. */
+    public static final Duration CATCH_UP_DELAY = Duration.ofSeconds(1);
+
+    /**
+     * @param lastRun   start of the last run; null before the first
+     * @param processed items handled over all runs since start
+     * @param caughtUp  false when the last run stopped at its time limit with work left
+     * @param lastError the last run's failure; null when it succeeded
+     */
+    public record Status(String name, boolean paused, Checkpoint checkpoint, long runs, long processed,
+                         Instant lastRun, Duration lastTook, boolean caughtUp, String lastError) {}
+
+    private final ScheduledExecutorService executor;
+    private final Supplier<LocalDate> today;
+    private final Path checkpointFile;
+    private final Map<String, Checkpoint> saved = new LinkedHashMap<>(); // guarded by this
+    private final Map<String, Job> jobs = new LinkedHashMap<>();        // guarded by this
+
+    public SweepScheduler(Supplier<LocalDate> today) {
+        this.executor = newExecutor();
+        this.today = today;
+        this.checkpointFile = null;
+    }
+
+    /**
+     * @param checkpointFile where checkpoints are kept between restarts; created on first save
+     */
+    public SweepScheduler(Supplier<LocalDate> today, Path checkpointFile) throws IOException {
+        this.today = today;
+        this.checkpointFile = checkpointFile;
+        if (Files.exists(checkpointFile)) {
+            for (String line : Files.readAllLines(checkpointFile, StandardCharsets.UTF_8)) {
+                String[] f = line.trim().split("\\s+");
+                if (f.length != 3) continue;
+                saved.put(f[0], new Checkpoint(Long.parseLong(f[1]), Long.parseLong(f[2])));
+            }
+        }
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Start running a sweep: first after a random part of the jitter, then every period
+     * plus a random part of the jitter.
+     *
+     * @param timeLimit how long one run may take before it stops at a checkpoint
+     */
+    public synchronized void schedule(Sweep sweep, Duration period, Duration jitter, Duration timeLimit) {
+        if (period.isNegative() || period.isZero()) throw new IllegalArgumentException("period must be positive: " + period);
+        if (jitter.isNegative()) throw new IllegalArgumentException("jitter must not be negative: " + jitter);
+        if (timeLimit.isNegative() || timeLimit.isZero()) throw new IllegalArgumentException("timeLimit must be positive: " + timeLimit);
+        if (jobs.containsKey(sweep.name())) throw new IllegalStateException("Sweep already scheduled: " + sweep.name());
+        Job job = new Job(sweep, period, jitter, timeLimit, saved.getOrDefault(sweep.name(), Checkpoint.START));
+        jobs.put(sweep.name(), job);
+        executor.schedule(() -> tick(job), random(jitter), TimeUnit.NANOSECONDS);
+    }
+
+    public void pause(String name) { job(name).paused = true; }
+
+    public void resume(String name) { job(name).paused = false; }
+
+    public synchronized void pauseAll() { jobs.values().forEach(j -> j.paused = true); }
+
+    public synchronized void resumeAll() { jobs.values().forEach(j -> j.paused = false); }
+
+    /** Run the sweep once as soon as the thread is free, even if paused; its schedule is unchanged. */
+    public void runNow(String name) {
+        Job job = job(name);
+        executor.execute(() -> run(job));
+    }
+
+    public synchronized List<Status> status() {
+        List<Status> res = new ArrayList<>(jobs.size());
+        for (Job j : jobs.values()) {
+            res.add(new Status(j.sweep.name(), j.paused, j.checkpoint, j.runs, j.processed, j.lastRun, j.lastTook,
+                    j.caughtUp, j.lastError));
+        }
+        return res;
+    }
+
+    /**
+     * Stop scheduling runs and wait up to a minute for the current one to finish; a run
+     * still going after that, or when the caller is interrupted, is interrupted too.
+     */
+    @Override
+    public void close() {
+        executor.shutdown(); // drops the waiting runs, see newExecutor
+        boolean interrupted = false, done;
+        try {
+            done = executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            interrupted = true;
+            done = false;
+        }
+        if (!done) executor.shutdownNow();
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void tick(Job job) {
+        try {
+            if (!job.paused) run(job);
+        } finally {
+            // even after an Error, or the sweep would never run again
+            long delay = job.caughtUp ? job.period.toNanos() + random(job.jitter) : CATCH_UP_DELAY.toNanos();
+            if (!executor.isShutdown()) executor.schedule(() -> tick(job), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void run(Job job) {
+        long start = System.nanoTime();
+        job.lastRun = Instant.now();
+        try {
+            Sweep.Result r = job.sweep.run(today.get(), job.checkpoint, start + job.timeLimit.toNanos());
+            job.checkpoint = r.checkpoint();
+            job.processed += r.processed();
+            job.caughtUp = r.caughtUp();
+            job.lastError = null;
+            save(job);
+        } catch (RuntimeException | Error e) {
+            job.caughtUp = true; // retry on the normal schedule, not in a tight loop
+            job.lastError = e.toString();
+            if (e instanceof Error) throw e;
+        } finally {
+            job.runs++;
+            job.lastTook = Duration.ofNanos(System.nanoTime() - start);
+        }
+    }
+
+    private synchronized void save(Job job) {
+        saved.put(job.sweep.name(), job.checkpoint);
+        if (checkpointFile == null) return;
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (var e : saved.entrySet()) {
+                    w.write(e.getKey() + " " + e.getValue().day() + " " + e.getValue().position());
+                    w.newLine();
+                }
+            }
+            Files.move(tmp, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized Job job(String name) {
+        Job job = jobs.get(name);
+        if (job == null) throw new IllegalArgumentException("No such sweep: " + name);
+        return job;
+    }
+
+    private static long random(Duration jitter) {
+        long max = jitter.toNanos();
+        return max == 0 ? 0 : ThreadLocalRandom.current().nextLong(max + 1);
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        var executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "library-sweeps");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static final class Job {
+        final Sweep sweep;
+        final Duration period, jitter, timeLimit;
+        volatile boolean paused;
+        // written only on the scheduler thread
+        volatile Checkpoint checkpoint;
+        volatile long runs, processed;
+        volatile Instant lastRun;
+        volatile Duration lastTook;
+        volatile boolean caughtUp = true;
+        volatile String lastError;
+
+        Job(Sweep sweep, Duration period, Duration jitter, Duration timeLimit, Checkpoint checkpoint) {
+            this.sweep = sweep; this.period = period; this.jitter = jitter; this.timeLimit = timeLimit;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
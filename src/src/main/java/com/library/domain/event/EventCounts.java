@@ -0,0 +1,43 @@
+package com.library.domain.event;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Handler that counts events by type and sums the fine amounts. Written only by its ring
+ * thread; reads from other threads see counts at most one batch behind.
+ */
+public final class EventCounts implements EventRing.Handler {
+    private static final LoanEvent.Type[] TYPES = LoanEvent.Type.values();
+
+    private final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray agorot = new AtomicLongArray(TYPES.length);
+    private final long[] pendingCounts = new long[TYPES.length];
+    private final long[] pendingAgorot = new long[TYPES.length];
+
+    @Override
+    public void onEvent(LoanEvent event, long sequence, boolean endOfBatch) {
+        int t = event.type().ordinal();
+        pendingCounts[t]++;
+        pendingAgorot[t] += event.agorot();
+        if (!endOfBatch) return;
+        for (int i = 0; i < TYPES.length; i++) {
+            counts.lazySet(i, counts.get(i) + pendingCounts[i]);
+            agorot.lazySet(i, agorot.get(i) + pendingAgorot[i]);
+            pendingCounts[i] = 0;
+            pendingAgorot[i] = 0;
+        }
+    }
+
+    public long count(LoanEvent.Type type) { return counts.get(type.ordinal()); }
+
+    /** Total of the fine amounts of this type; 0 for loan events. */
+    public long agorot(LoanEvent.Type type) { return agorot.get(type.ordinal()); }
+
+    public Map<LoanEvent.Type, Long> snapshot() {
+        Map<LoanEvent.Type, Long> m = new EnumMap<>(LoanEvent.Type.class);
+        for (LoanEvent.Type t : TYPES) m.put(t, count(t));
+        return m;
+    }
+}
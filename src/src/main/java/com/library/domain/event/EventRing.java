@@ -0,0 +1,210 @@
+package com.library.domain.event;
+
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Circulation events on a pre-allocated ring, in the style of the LMAX Disruptor.
+ *
+ * <p>The ring holds a power-of-two number of {@link LoanEvent} slots created up front.
+ * A publisher claims the next sequence number, fills that slot in place and marks it
+ * published, so publishing allocates nothing. Each handler has its own thread and its
+ * own sequence: it waits until events past its sequence are published, hands over every
+ * one of them as a batch, and only then advances its sequence. Publishers never run more
+ * than a ring ahead of the slowest handler; when the ring is full they wait, which is the
+ * backpressure.
+ *
+ * <p>Publishing is safe from any thread. The claim is a single atomic add, so with one
+ * publishing thread it is never contended. Each handler sees every event once, in
+ * sequence order; handlers see the same order, and run independently of each other.
+ * Once the ring is closed, publishing does nothing, so publishers never wait on handlers
+ * that have stopped.
+ */
+public final class EventRing implements AutoCloseable {
+    public static final int DEFAULT_SIZE = 1 << 14;
+
+    /** Receives events on the handler's own thread. */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param endOfBatch true for the last event currently available, a good point to
+         *                   flush work buffered over the batch
+         */
+        void onEvent(LoanEvent event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private static final VarHandle ROUNDS = MethodHandles.arrayElementVarHandle(int[].class);
+    // a handler with nothing to do spins this many times before it starts parking
+    private static final int SPINS = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LoanEvent[] slots;
+    private final int mask, shift;
+    // round (sequence / size) of the event last published into each slot
+    private final int[] rounds;
+    private final Sequence claimed = new Sequence(-1);
+    // lowest handler sequence seen by a publisher, so most claims skip reading them all
+    private final Sequence gatingCache = new Sequence(-1);
+    private final List<Sequence> handlerSequences = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile Sequence[] gating = new Sequence[0];
+    private volatile boolean running;
+    private volatile boolean closed;
+    private boolean started;
+
+    public EventRing() { this(DEFAULT_SIZE); }
+
+    /** @param size slots in the ring, a power of two */
+    public EventRing(int size) {
+        if (size < 1 || Integer.bitCount(size) != 1) throw new IllegalArgumentException("size must be a power of two: " + size);
+        slots = new LoanEvent[size];
+        rounds = new int[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LoanEvent();
+            rounds[i] = -1;
+        }
+        mask = size - 1;
+        shift = Integer.numberOfTrailingZeros(size);
+    }
+
+    /** Add a handler; it sees events published after {@link #start}. */
+    public synchronized void addHandler(String name, Handler handler) {
+        if (started) throw new IllegalStateException("Ring already started.");
+        Sequence seq = new Sequence(-1);
+        handlerSequences.add(seq);
+        Thread t = new Thread(() -> consume(handler, seq), "event-" + name);
+        t.setDaemon(true);
+        threads.add(t);
+    }
+
+    public synchronized void start() {
+        if (started) throw new IllegalStateException("Ring already started.");
+        started = true;
+        running = true;
+        long from = claimed.get();
+        for (Sequence s : handlerSequences) s.setRelease(from);
+        gating = handlerSequences.toArray(new Sequence[0]);
+        threads.forEach(Thread::start);
+    }
+
+    /**
+     * Stop the handlers once they have seen every event published so far, and wait for them.
+     * Events published from then on are dropped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        running = false;
+        boolean interrupted = false;
+        for (Thread t : threads) {
+            LockSupport.unpark(t);
+            while (t.isAlive()) {
+                try { t.join(); } catch (InterruptedException e) { interrupted = true; }
+            }
+        }
+        gating = new Sequence[0]; // a publisher already waiting for a slot stops waiting
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    public int size() { return slots.length; }
+
+    /** Sequence of the last event claimed by a publisher, -1 before the first. */
+    public long cursor() { return claimed.get(); }
+
+    /** Exceptions thrown by handlers; the event is skipped and the handler carries on. */
+    public long errors() { return errors.get(); }
+
+    // ===== Publishing =====
+
+    public void loanCreated(Loan loan) {
+        if (closed) return;
+        long seq = next();
+        slots[(int) seq & mask].set(LoanEvent.Type.LOAN_CREATED, loan, loan.getUser(), loan.getBook(), 0);
+        publish(seq);
+    }
+
+    public void loanReturned(Loan loan) {
+        if (closed) return;
+        long seq = next();
+        slots[(int) seq & mask].set(LoanEvent.Type.LOAN_RETURNED, loan, loan.getUser(), loan.getBook(), 0);
+        publish(seq);
+    }
+
+    public void fineAccrued(User user, long agorot) {
+        if (closed) return;
+        long seq = next();
+        slots[(int) seq & mask].set(LoanEvent.Type.FINE_ACCRUED, null, user, null, agorot);
+        publish(seq);
+    }
+
+    public void finePaid(User user, long agorot) {
+        if (closed) return;
+        long seq = next();
+        slots[(int) seq & mask].set(LoanEvent.Type.FINE_PAID, null, user, null, agorot);
+        publish(seq);
+    }
+
+    /** Claim the next sequence, waiting while its slot is still unread by some handler. */
+    private long next() {
+        long seq = claimed.addAndGet(1);
+        long wrap = seq - slots.length;
+        if (wrap > gatingCache.get()) {
+            long min;
+            while (wrap > (min = minGating(seq))) LockSupport.parkNanos(1);
+            gatingCache.setRelease(min);
+        }
+        return seq;
+    }
+
+    private void publish(long seq) { ROUNDS.setRelease(rounds, (int) seq & mask, (int) (seq >>> shift)); }
+
+    private long minGating(long dflt) {
+        long min = dflt;
+        for (Sequence s : gating) min = Math.min(min, s.get());
+        return min;
+    }
+
+    // ===== Consuming =====
+
+    private void consume(Handler handler, Sequence seq) {
+        long next = seq.get() + 1;
+        int idle = 0;
+        while (true) {
+            long available = published(next, claimed.get());
+            if (available < next) {
+                // stop only once nothing claimed is still being filled in
+                if (!running && next > claimed.get()) return;
+                if (++idle < SPINS) Thread.onSpinWait();
+                else LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            idle = 0;
+            for (long s = next; s <= available; s++) {
+                try {
+                    handler.onEvent(slots[(int) s & mask], s, s == available);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            }
+            seq.setRelease(available);
+            next = available + 1;
+        }
+    }
+
+    /** Highest sequence from {@code from} on such that all events up to it are published. */
+    private long published(long from, long upTo) {
+        for (long s = from; s <= upTo; s++) {
+            if ((int) ROUNDS.getAcquire(rounds, (int) s & mask) != (int) (s >>> shift)) return s - 1;
+        }
+        return upTo;
+    }
+}
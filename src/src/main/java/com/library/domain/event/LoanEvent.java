@@ -0,0 +1,35 @@
+package com.library.domain.event;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+
+/**
+ * One slot of an {@link EventRing}. Slots are allocated once with the ring and
+ * overwritten in place for every event, so handlers must copy whatever they keep
+ * beyond {@link EventRing.Handler#onEvent}.
+ */
+public final class LoanEvent {
+    public enum Type { LOAN_CREATED, LOAN_RETURNED, FINE_ACCRUED, FINE_PAID }
+
+    private Type type;
+    private Loan loan;
+    private User user;
+    private Book book;
+    private long agorot;
+
+    LoanEvent() {}
+
+    void set(Type type, Loan loan, User user, Book book, long agorot) {
+        this.type = type; this.loan = loan; this.user = user; this.book = book; this.agorot = agorot;
+    }
+
+    public Type type() { return type; }
+    /** The loan, for loan events; null for fines. */
+    public Loan loan() { return loan; }
+    public User user() { return user; }
+    /** The book, for loan events; null for fines. */
+    public Book book() { return book; }
+    /** Amount of a fine event; 0 for loan events. */
+    public long agorot() { return agorot; }
+}
@@ -0,0 +1,38 @@
+package com.library.domain.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/** A sequence counter on its own cache line, so producers and consumers don't false-share. */
+final class Sequence extends SequenceValue {
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    Sequence(long initial) { value = initial; }
+}
+
+abstract class SequencePadding {
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequencePadding {
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    protected volatile long value;
+
+    long get() { return value; }
+
+    /** Store without a full fence; readers still see it in order with earlier writes. */
+    void setRelease(long v) { VALUE.setRelease(this, v); }
+
+    /** @return the value after adding {@code n} */
+    long addAndGet(long n) { return (long) VALUE.getAndAdd(this, n) + n; }
+}
@@ -1,10 +1,29 @@
 package com.library.domain.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Locale;
+
 public class Book {
+    /** Relevance weights of a hit in each field; a field that starts with the query counts double. */
+    public static final int TITLE_WEIGHT = 4, AUTHOR_WEIGHT = 2, ISBN_WEIGHT = 1;
+
+    private static final VarHandle AVAILABLE;
+    static {
+        try {
+            AVAILABLE = MethodHandles.lookup().findVarHandle(Book.class, "available", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String title;
     private final String author;
     private final String isbn;
-    private boolean available = true;
+    // case-folded fields, made by the first match so books that are never scanned keep
+    // only their own (possibly shared) strings; racy but benign, the record's fields are final
+    private Keys keys;
+    private volatile boolean available = true;
 
     public Book(String title, String author, String isbn) {
         this.title = title;
@@ -12,6 +31,14 @@ public class Book {
         this.isbn = isbn;
     }
 
+    /**
+     * For views that keep the book's data elsewhere and override the getters and the
+     * availability methods.
+     */
+    protected Book() {
+        this(null, null, null);
+    }
+
     public String getTitle()  { return title; }
     public String getAuthor() { return author; }
     public String getIsbn()   { return isbn; }
@@ -19,13 +46,78 @@ public class Book {
     public boolean isAvailable() { return available; }
 
 
-    public boolean matches(String q) {
-        String k = q.toLowerCase();
-        return title.toLowerCase().contains(k)
-                || author.toLowerCase().contains(k)
-                || isbn.toLowerCase().contains(k);
+    /** Case-insensitive substring match on title, author or ISBN. */
+    public boolean matches(String q) { return matchesFolded(fold(q)); }
+
+    /**
+     * Same as {@link #matches(String)} for a query already passed through {@link #fold},
+     * so a search can fold its query once for the whole catalog. Allocates nothing after
+     * the book's first match, which folds its fields once.
+     */
+    public boolean matchesFolded(String q) {
+        Keys k = keys();
+        if (k != null) return k.title.contains(q) || k.author.contains(q) || k.isbn.contains(q);
+        // views built with the no-arg constructor have no keys; compare their fields in place
+        return containsFolded(getTitle(), q) || containsFolded(getAuthor(), q) || containsFolded(getIsbn(), q);
+    }
+
+    /**
+     * Weighted relevance of this book for a query already passed through {@link #fold}:
+     * the sum of the weights of the fields containing it, doubled for a field that starts
+     * with it. 0 exactly when {@link #matchesFolded} is false. Allocates nothing after
+     * the first match.
+     */
+    public int relevance(String q) {
+        Keys k = keys();
+        if (k != null) {
+            return TITLE_WEIGHT * hit(k.title, q) + AUTHOR_WEIGHT * hit(k.author, q) + ISBN_WEIGHT * hit(k.isbn, q);
+        }
+        return TITLE_WEIGHT * hitFolded(getTitle(), q) + AUTHOR_WEIGHT * hitFolded(getAuthor(), q)
+                + ISBN_WEIGHT * hitFolded(getIsbn(), q);
     }
 
+    /** The case folding used for matching. */
+    public static String fold(String s) { return s.toLowerCase(Locale.ROOT); }
+
     public void markBorrowed() { available = false; }
     public void markReturned() { available = true; }
+
+    /**
+     * Atomically flip the book from available to borrowed.
+     *
+     * @return true if this call took the book; false if it was already borrowed
+     */
+    public boolean tryMarkBorrowed() { return AVAILABLE.compareAndSet(this, true, false); }
+
+    /**
+     * Atomically flip the book from borrowed back to available.
+     *
+     * @return true if this call released the book; false if it was already available
+     */
+    public boolean tryMarkReturned() { return AVAILABLE.compareAndSet(this, false, true); }
+
+    /** Folded fields, made once on first use; null for views, which keep their data elsewhere. */
+    private Keys keys() {
+        Keys k = keys;
+        if (k == null && title != null) keys = k = new Keys(fold(title), fold(author), fold(isbn));
+        return k;
+    }
+
+    // same instance as the field when it is already folded
+    private record Keys(String title, String author, String isbn) {}
+
+    private static int hit(String key, String q) {
+        return key.startsWith(q) ? 2 : key.contains(q) ? 1 : 0;
+    }
+
+    private static int hitFolded(String s, String q) {
+        return s.regionMatches(true, 0, q, 0, q.length()) ? 2 : containsFolded(s, q) ? 1 : 0;
+    }
+
+    private static boolean containsFolded(String s, String q) {
+        for (int i = 0, last = s.length() - q.length(); i <= last; i++) {
+            if (s.regionMatches(true, i, q, 0, q.length())) return true;
+        }
+        return false;
+    }
 }
@@ -1,11 +1,22 @@
 package com.library.domain.model;
 
+/**
+ * A user's outstanding fine. Amounts are kept in agorot (1/100 NIS) so repeated
+ * postings never drift; the double accessors convert at the edges.
+ */
 public class Fine {
     private final User user;
-    private double amount; // NIS
-    public Fine(User user, double amount) { this.user = user; this.amount = amount; }
+    private long agorot;
+    public Fine(User user, double amount) { this(toAgorot(amount), user); }
+    private Fine(long agorot, User user) { this.user = user; this.agorot = agorot; }
+    public static Fine ofAgorot(User user, long agorot) { return new Fine(agorot, user); }
     public User getUser() { return user; }
-    public double getAmount() { return amount; }
-    public void pay(double value) { amount = Math.max(0, amount - value); }
-    public boolean isCleared() { return amount <= 0.0001; }
+    /** Amount in NIS. */
+    public double getAmount() { return agorot / 100.0; }
+    public long getAgorot() { return agorot; }
+    public void pay(double value) { agorot = Math.max(0, agorot - toAgorot(value)); }
+    public boolean isCleared() { return agorot <= 0; }
+
+    /** NIS to agorot, rounded to the nearest agora. */
+    public static long toAgorot(double nis) { return Math.round(nis * 100); }
 }
@@ -1,16 +1,94 @@
 package com.library.domain.model;
 
+import com.library.domain.search.CatalogIndex;
+import com.library.domain.search.CatalogScan;
+import com.library.domain.search.FuzzyMatcher;
+import com.library.domain.search.SearchPage;
+import com.library.domain.search.TopHits;
+
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
 
 public class Librarian {
+    private final CatalogScan scan;
+
+    /** Scans on the calling thread. */
+    public Librarian() { this(null); }
 
+    /** Hands large linear scans to {@code scan}, which runs them in parallel. */
+    public Librarian(CatalogScan scan) { this.scan = scan; }
+
+    /**
+     * Books whose title, author or ISBN contains the query, ignoring case, in catalog
+     * order. Without a {@link CatalogScan} the query is folded once and apart from that
+     * the only allocation is the result.
+     */
     public List<Book> search(List<Book> catalog, String query) {
-        String k = query.toLowerCase();
-        return catalog.stream()
-                .filter(b -> b.getTitle().toLowerCase().contains(k)
-                        || b.getAuthor().toLowerCase().contains(k)
-                        || b.getIsbn().toLowerCase().contains(k))
-                .collect(Collectors.toList());
+        if (scan != null) return scan.search(catalog, query);
+        String k = Book.fold(query);
+        List<Book> res = new ArrayList<>();
+        if (catalog instanceof RandomAccess) {
+            for (int i = 0, n = catalog.size(); i < n; i++) {
+                Book b = catalog.get(i);
+                if (b.matchesFolded(k)) res.add(b);
+            }
+        } else {
+            for (Book b : catalog) if (b.matchesFolded(k)) res.add(b);
+        }
+        return res;
+    }
+
+    /** Books accepted by an ad-hoc filter, in catalog order. */
+    public List<Book> filter(List<Book> catalog, Predicate<? super Book> filter) {
+        if (scan != null) return scan.filter(catalog, filter);
+        List<Book> res = new ArrayList<>();
+        for (Book b : catalog) if (filter.test(b)) res.add(b);
+        return res;
+    }
+
+    /**
+     * Same matches as {@link #search(List, String)}, ranked by {@link Book#relevance} and
+     * paged. Only the best {@code offset + limit} hits are held while scanning.
+     *
+     * @param offset rank of the first hit to return, from 0
+     * @param limit  maximum hits to return
+     */
+    public SearchPage search(List<Book> catalog, String query, int offset, int limit) {
+        TopHits top = CatalogIndex.topHits(offset, limit);
+        String k = Book.fold(query);
+        for (Book b : catalog) top.offer(b, b.relevance(k));
+        return top.page(offset, limit);
+    }
+
+    /** Ranked, paged search answered from an index; see {@link CatalogIndex#search(String, int, int)}. */
+    public SearchPage search(CatalogIndex index, String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    /**
+     * Same matching rules as {@link #search(List, String)}, answered from an index
+     * instead of scanning the catalog.
+     */
+    public List<Book> search(CatalogIndex index, String query) {
+        return index.search(query);
+    }
+
+    /**
+     * Typo-tolerant search: books with a title, author or ISBN within {@code maxEdits}
+     * edits of the query, fewest edits first, then by field weight, then catalog order.
+     * Checks every book; see {@link #fuzzySearch(CatalogIndex, String, int, int, int)}.
+     */
+    public SearchPage fuzzySearch(List<Book> catalog, String query, int maxEdits, int offset, int limit) {
+        TopHits top = CatalogIndex.topHits(offset, limit);
+        FuzzyMatcher matcher = new FuzzyMatcher(query, maxEdits);
+        for (Book b : catalog) top.offer(b, matcher.score(b));
+        return top.page(offset, limit);
+    }
+
+    /** Same results as {@link #fuzzySearch(List, String, int, int, int)}, checking only trigram candidates. */
+    public SearchPage fuzzySearch(CatalogIndex index, String query, int maxEdits, int offset, int limit) {
+        return index.fuzzySearch(query, maxEdits, offset, limit);
     }
 }
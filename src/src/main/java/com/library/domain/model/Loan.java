@@ -1,21 +1,92 @@
 package com.library.domain.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class Loan {
+    private static final VarHandle FINED_THROUGH;
+    static {
+        try {
+            FINED_THROUGH = MethodHandles.lookup().findVarHandle(Loan.class, "finedThrough", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final User user;
     private final Book book;
     private final LocalDate borrowDate;
     private final LocalDate dueDate;
-    private boolean returned;
+    private volatile boolean returned;
+    // last day, as an epoch day, whose overdue fine has been charged; the due date until then
+    private volatile long finedThrough;
+    private List<Consumer<Loan>> returnListeners; // guarded by this
 
     public Loan(User user, Book book, LocalDate borrowDate, LocalDate dueDate) {
         this.user = user; this.book = book; this.borrowDate = borrowDate; this.dueDate = dueDate;
+        this.finedThrough = dueDate.toEpochDay();
     }
     public User getUser() { return user; }
     public Book getBook() { return book; }
     public LocalDate getBorrowDate() { return borrowDate; }
     public LocalDate getDueDate() { return dueDate; }
     public boolean isReturned() { return returned; }
-    public void markReturned() { this.returned = true; }
+
+    /** Epoch day through which overdue fines have been charged; the due date when none have. */
+    public long getFinedThrough() { return finedThrough; }
+
+    /**
+     * Move the fined-through day from {@code expected} to {@code day}, so each overdue
+     * day is charged once however many accruals run.
+     *
+     * @return false when the day is not {@code expected} any more, or {@code day} is not later
+     */
+    public boolean advanceFinedThrough(long expected, long day) {
+        return day > expected && FINED_THROUGH.compareAndSet(this, expected, day);
+    }
+
+    /**
+     * Move the fined-through day back from {@code day} to {@code previous}, undoing an
+     * {@link #advanceFinedThrough} whose charge could not be recorded.
+     *
+     * @return false when the day is not {@code day} any more
+     */
+    public boolean revertFinedThrough(long day, long previous) {
+        return FINED_THROUGH.compareAndSet(this, day, previous);
+    }
+
+    /**
+     * Mark the loan returned. Listeners registered with {@link #onReturned} run once,
+     * on the first call, in the calling thread.
+     */
+    public void markReturned() {
+        List<Consumer<Loan>> ls;
+        synchronized (this) {
+            if (returned) return;
+            this.returned = true;
+            ls = returnListeners;
+        }
+        if (ls != null) ls.forEach(l -> l.accept(this));
+    }
+
+    /**
+     * Register a callback for when the loan is returned, e.g. to drop it from an index.
+     * If the loan is already returned the callback runs immediately.
+     *
+     * @param listener called with this loan
+     */
+    public void onReturned(Consumer<Loan> listener) {
+        synchronized (this) {
+            if (!returned) {
+                if (returnListeners == null) returnListeners = new ArrayList<>(2);
+                returnListeners.add(listener);
+                return;
+            }
+        }
+        listener.accept(this);
+    }
 }
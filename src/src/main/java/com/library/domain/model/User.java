@@ -2,14 +2,16 @@ package com.library.domain.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Represents a library user.
+ * Represents a library user. The borrowed list is safe to read and update from
+ * several threads.
  */
 public class User {
     private final String id;
     private final String name;
-    private final List<Book> borrowed = new ArrayList<>();
+    private final List<Book> borrowed = new CopyOnWriteArrayList<>();
 
     public User(String id, String name) {
         this.id = id;
@@ -24,7 +26,13 @@ public class User {
     }
 
     public void addBorrowed(Book book) { borrowed.add(book); }
-    public void removeBorrowed(Book book) { borrowed.remove(book); }
+    public boolean removeBorrowed(Book book) { return borrowed.remove(book); }
+
+    /** Add several books with one copy of the list. */
+    public void addAllBorrowed(List<Book> books) { borrowed.addAll(books); }
+
+    /** Remove several books with one copy of the list. */
+    public void removeAllBorrowed(List<Book> books) { borrowed.removeAll(books); }
 
     public boolean hasBorrowed(String isbn) {
         return borrowed.stream().anyMatch(b -> b.getIsbn().equals(isbn));
@@ -41,8 +49,7 @@ public class User {
      */
     public boolean borrow(Book book) {
         if (book == null) return false;
-        if (!book.isAvailable()) return false;
-        book.markBorrowed();
+        if (!book.tryMarkBorrowed()) return false;
         borrowed.add(book);
         return true;
     }
@@ -1 +1,17 @@
+package com.library.domain.repository;
 
+import com.library.domain.model.Book;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookRepository {
+    /** Insert or replace the book stored under its ISBN. */
+    void save(Book book);
+    /** Insert the book unless its ISBN is already taken; true when it was inserted. */
+    boolean saveIfAbsent(Book book);
+    Optional<Book> findByIsbn(String isbn);
+    List<Book> findAll();
+    Stream<Book> stream();
+    int count();
+}
@@ -1,10 +1,53 @@
 package com.library.domain.repository;
 
 import com.library.domain.model.Fine;
+import com.library.domain.model.Loan;
 import com.library.domain.model.User;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Per-user fine ledger in agorot. {@link #accrue} and {@link #pay} are atomic and may be
+ * called concurrently for the same user; {@link #save} overwrites a balance and is meant
+ * for seeding and administration, not for the posting path.
+ */
 public interface FineRepository {
     void save(Fine fine);
     Optional<Fine> findByUser(User user);
+    /** Add to the user's balance. */
+    void accrue(User user, long agorot);
+    /** Take up to {@code agorot} off the balance, never below zero; returns the amount applied. */
+    long pay(User user, long agorot);
+    /** Current balance; 0 for users without fines. */
+    long balance(User user);
+
+    /** A loan's overdue fine for the days after {@code from} through {@code through}, as epoch days. */
+    record Accrual(Loan loan, long from, long through, long agorot) {}
+
+    /** Epoch day through which this ledger has charged the loan's overdue fines. */
+    default long finedThrough(Loan loan) { return loan.getFinedThrough(); }
+
+    /**
+     * The returned loan has been charged through its return day and is never charged
+     * again, so stores may forget what they keep for it.
+     */
+    default void settled(Loan loan) {}
+
+    /**
+     * Charge each accrual whose loan is still fined through exactly {@code from}, moving it
+     * to {@code through}; the others were charged by someone else and are skipped, so no
+     * overdue day is ever charged twice. Durable stores write the batch as one unit.
+     *
+     * @return the accruals applied, in batch order
+     */
+    default List<Accrual> accrueAll(List<Accrual> batch) {
+        List<Accrual> applied = new ArrayList<>(batch.size());
+        for (Accrual a : batch) {
+            if (!a.loan().advanceFinedThrough(a.from(), a.through())) continue;
+            accrue(a.loan().getUser(), a.agorot());
+            applied.add(a);
+        }
+        return applied;
+    }
 }
@@ -1,9 +1,44 @@
 package com.library.domain.repository;
 
+import com.library.domain.model.Book;
 import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LoanRepository {
     void save(Loan loan);
     List<Loan> findAll();
+    /** Every loan saved so far, in save order, without copying the history first. */
+    Stream<Loan> stream();
+    /** The most recent loan of this book to this user that is not returned yet. */
+    Optional<Loan> findOpenLoan(User user, Book book);
+    List<Loan> findByUser(User user);
+    List<Loan> findByBook(Book book);
+    List<Loan> findOpen();
+    /** Open loans whose due date is strictly before {@code day}, earliest first. */
+    List<Loan> findOpenDueBefore(LocalDate day);
+
+    /** Due date of the open loan due first; empty when no loan is open. */
+    default Optional<LocalDate> findFirstOpenDueDate() {
+        return findOpen().stream().map(Loan::getDueDate).min(LocalDate::compareTo);
+    }
+
+    /** Open loans due on or after {@code from} and strictly before {@code to}, earliest first. */
+    default List<Loan> findOpenDueBetween(LocalDate from, LocalDate to) {
+        return findOpenDueBefore(to).stream().filter(l -> !l.getDueDate().isBefore(from)).toList();
+    }
+    /** Mark the loan returned and drop it from the open-loan indexes. */
+    void markReturned(Loan loan);
+
+    /** Save a batch of loans; durable stores write them as one unit. */
+    default void saveAll(List<Loan> loans) { loans.forEach(this::save); }
+
+    /**
+     * Mark a batch of loans returned; durable stores write them as one unit and mark
+     * none of them if the write fails.
+     */
+    default void markAllReturned(List<Loan> loans) { loans.forEach(this::markReturned); }
 }
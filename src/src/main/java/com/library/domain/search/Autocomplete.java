@@ -0,0 +1,252 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix completion over case-folded titles and authors, ranked by circulation.
+ *
+ * <p>Every title and author is inserted into a radix trie (edges are whole strings, so
+ * chains of single children are collapsed) under its full text and under each word that
+ * starts inside it, so "cod" completes "Clean Code". Each node caches the best
+ * {@code keep} entries of its subtree, ordered by loan count and then alphabetically, so
+ * a suggestion is one walk down the prefix plus a copy of that list.
+ *
+ * <p>Loan counts only grow, which keeps the cached lists exact: when an entry's count
+ * goes up only that entry can move, so it is re-ranked on each node along its paths.
+ */
+public class Autocomplete {
+    public static final int DEFAULT_KEEP = 10;
+
+    public enum Kind { TITLE, AUTHOR }
+
+    public record Suggestion(String text, Kind kind, long circulation) {}
+
+    private final int keep;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public Autocomplete() { this(DEFAULT_KEEP); }
+
+    /** @param keep completions cached per node, the most {@link #suggest} can return */
+    public Autocomplete(int keep) {
+        if (keep < 1) throw new IllegalArgumentException("keep must be positive: " + keep);
+        this.keep = keep;
+    }
+
+    /** Make the book's title and author completable. */
+    public void add(Book book) { addAll(List.of(book)); }
+
+    public void addAll(List<Book> books) {
+        lock.writeLock().lock();
+        try {
+            for (Book b : books) {
+                entry(b.getTitle(), Kind.TITLE);
+                entry(b.getAuthor(), Kind.AUTHOR);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Count one more loan for the book's title and author. */
+    public void recordLoan(Book book) {
+        lock.writeLock().lock();
+        try {
+            bump(entry(book.getTitle(), Kind.TITLE));
+            bump(entry(book.getAuthor(), Kind.AUTHOR));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The most borrowed titles and authors containing a word that starts with
+     * {@code prefix}, ignoring case.
+     *
+     * @param n at most this many, capped at the {@code keep} given to the constructor
+     */
+    public List<Suggestion> suggest(String prefix, int n) {
+        String p = Book.fold(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = find(p);
+            if (node == null) return new ArrayList<>();
+            int size = Math.min(n, node.size);
+            List<Suggestion> res = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Entry e = node.top[i];
+                res.add(new Suggestion(e.text, e.kind, e.circulation));
+            }
+            return res;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== Trie (callers hold the write lock unless noted) =====
+
+    private Entry entry(String text, Kind kind) {
+        String folded = Book.fold(text);
+        Entry e = entries.get(kind.ordinal() + folded);
+        if (e != null) return e;
+        e = new Entry(text, kind, folded);
+        entries.put(kind.ordinal() + folded, e);
+        for (int start : starts(folded)) insert(folded, start, e);
+        return e;
+    }
+
+    private void bump(Entry e) {
+        e.circulation++;
+        for (int start : starts(e.folded)) {
+            String key = e.folded;
+            Node node = root;
+            rank(node, e);
+            for (int i = start; i < key.length(); ) {
+                node = node.child(key.charAt(i));
+                rank(node, e);
+                i += node.edge.length();
+            }
+        }
+    }
+
+    /** Offsets where a word starts: 0 and every letter or digit after a separator. */
+    private static int[] starts(String s) {
+        int[] res = new int[4];
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            boolean word = Character.isLetterOrDigit(s.charAt(i));
+            if (i == 0 || (word && !Character.isLetterOrDigit(s.charAt(i - 1)))) {
+                if (n == res.length) res = Arrays.copyOf(res, n * 2);
+                res[n++] = i;
+            }
+        }
+        return Arrays.copyOf(res, n);
+    }
+
+    private void insert(String key, int from, Entry e) {
+        Node node = root;
+        rank(node, e);
+        int i = from;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.addChild(child);
+                rank(child, e);
+                return;
+            }
+            int common = 0;
+            while (common < child.edge.length() && i + common < key.length()
+                    && child.edge.charAt(common) == key.charAt(i + common)) common++;
+            if (common < child.edge.length()) child = split(node, child, common);
+            rank(child, e);
+            i += common;
+            node = child;
+        }
+    }
+
+    /** Cut the child's edge after {@code at} chars; the new middle node has the same subtree. */
+    private Node split(Node parent, Node child, int at) {
+        Node mid = new Node(child.edge.substring(0, at));
+        mid.top = child.top == null ? null : child.top.clone();
+        mid.size = child.size;
+        parent.replaceChild(mid); // while child still has its old first char
+        child.edge = child.edge.substring(at);
+        mid.addChild(child);
+        return mid;
+    }
+
+    /** Put or move e into the node's cached top list. Counts only grow, so e only moves up. */
+    private void rank(Node node, Entry e) {
+        if (node.top == null) node.top = new Entry[keep];
+        Entry[] top = node.top;
+        int pos = -1;
+        for (int i = 0; i < node.size && pos < 0; i++) if (top[i] == e) pos = i;
+        if (pos < 0) {
+            if (node.size < keep) pos = node.size++;
+            else if (e.outranks(top[keep - 1])) pos = keep - 1;
+            else return;
+            top[pos] = e;
+        }
+        for (; pos > 0 && e.outranks(top[pos - 1]); pos--) {
+            top[pos] = top[pos - 1];
+            top[pos - 1] = e;
+        }
+    }
+
+    /** Node whose subtree holds exactly the keys starting with p; caller holds a lock. */
+    private Node find(String p) {
+        Node node = root;
+        int i = 0;
+        while (i < p.length()) {
+            Node child = node.child(p.charAt(i));
+            if (child == null) return null;
+            int rest = Math.min(child.edge.length(), p.length() - i);
+            if (!child.edge.regionMatches(0, p, i, rest)) return null;
+            i += rest;
+            node = child;
+        }
+        return node;
+    }
+
+    private static final class Entry {
+        final String text, folded;
+        final Kind kind;
+        long circulation;
+
+        Entry(String text, Kind kind, String folded) { this.text = text; this.kind = kind; this.folded = folded; }
+
+        boolean outranks(Entry o) {
+            if (circulation != o.circulation) return circulation > o.circulation;
+            int c = folded.compareTo(o.folded);
+            return c != 0 ? c < 0 : kind.compareTo(o.kind) < 0;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NONE = new Node[0];
+
+        String edge;
+        Node[] children = NONE;   // sorted by first char of edge
+        Entry[] top;
+        int size;
+
+        Node(String edge) { this.edge = edge; }
+
+        Node child(char c) {
+            int i = indexOf(c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void addChild(Node n) {
+            int i = -indexOf(n.edge.charAt(0)) - 1;
+            Node[] next = new Node[children.length + 1];
+            System.arraycopy(children, 0, next, 0, i);
+            next[i] = n;
+            System.arraycopy(children, i, next, i + 1, children.length - i);
+            children = next;
+        }
+
+        void replaceChild(Node n) { children[indexOf(n.edge.charAt(0))] = n; }
+
+        private int indexOf(char c) {
+            int lo = 0, hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].edge.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -lo - 1;
+        }
+    }
+}
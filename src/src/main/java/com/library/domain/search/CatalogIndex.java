@@ -0,0 +1,394 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Incremental inverted index over the catalog.
+ *
+ * Authors and title tokens are interned in {@link TermDictionary dictionaries} as books
+ * are added, so each distinct author or word is stored and case-folded once. Every 1-,
+ * 2- and 3-character gram of the folded title and ISBN is mapped to a posting list of
+ * document ids; author grams are mapped to author ids instead, and each author to its
+ * documents, so an author shared by thousands of titles is indexed once.
+ *
+ * Queries of up to three characters are answered straight from posting lists; longer
+ * queries intersect the postings of their trigrams and verify the few surviving
+ * candidates with {@code contains}, so results are exactly those of
+ * {@link Book#matches(String)}, in insertion order.
+ */
+public class CatalogIndex {
+    private static final int MAX_GRAM = 3;
+    private static final int[] NO_IDS = new int[0];
+
+    private final TermDictionary authors;
+    private final TermDictionary tokens;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();       // title/ISBN gram -> docs
+    private final Map<Long, Postings> authorGrams = new HashMap<>();    // author gram -> author ids
+    private final List<Postings> docsByAuthor = new ArrayList<>();      // author id -> docs
+    private final List<Book> docs = new ArrayList<>();
+    private final List<int[]> titles = new ArrayList<>();              // title as token ids
+    private final List<String> isbns = new ArrayList<>();
+
+    public CatalogIndex() { this(new TermDictionary(), new TermDictionary()); }
+
+    /**
+     * @param authors dictionary of author names, which may be shared with whoever builds
+     *                the books so they can reuse its canonical strings
+     * @param tokens  dictionary of title tokens
+     */
+    public CatalogIndex(TermDictionary authors, TermDictionary tokens) {
+        this.authors = authors;
+        this.tokens = tokens;
+    }
+
+    public TermDictionary authors() { return authors; }
+    public TermDictionary titleTokens() { return tokens; }
+
+    /**
+     * Add a book to the index. Books are numbered in the order they are added.
+     *
+     * @param book book to index
+     */
+    public void add(Book book) { addAll(List.of(book)); }
+
+    /**
+     * Add many books under a single acquisition of the write lock, interning their terms
+     * beforehand so searches are held up only for the posting-list updates.
+     *
+     * @param books books to index, in order
+     */
+    public void addAll(List<Book> books) {
+        int n = books.size();
+        int[] author = new int[n];
+        int[][] title = new int[n][];
+        String[] isbn = new String[n];
+        for (int k = 0; k < n; k++) {
+            Book b = books.get(k);
+            author[k] = authors.intern(b.getAuthor());
+            title[k] = tokenize(b.getTitle());
+            isbn[k] = fold(b.getIsbn());
+        }
+        lock.writeLock().lock();
+        try {
+            for (int k = 0; k < n; k++) {
+                int id = docs.size();
+                docs.add(books.get(k)); titles.add(title[k]); isbns.add(isbn[k]);
+                indexField(postings, foldedTitle(title[k]), id);
+                indexField(postings, isbn[k], id);
+                indexAuthor(author[k], id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Case-insensitive substring search over title, author and ISBN.
+     *
+     * @param query text to look for
+     * @return matching books in the order they were added
+     */
+    public List<Book> search(String query) {
+        List<Book> res = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachMatch(fold(query), id -> res.add(docs.get(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return res;
+    }
+
+    /**
+     * Relevance-ranked search: matches are scored with {@link Book#relevance} and only the
+     * best {@code offset + limit} are kept while scanning, so memory stays O(page) rather
+     * than O(hits). Equal scores keep insertion order.
+     *
+     * @param offset rank of the first hit to return, from 0
+     * @param limit  maximum hits to return
+     */
+    public SearchPage search(String query, int offset, int limit) {
+        TopHits top = topHits(offset, limit);
+        String q = fold(query);
+        lock.readLock().lock();
+        try {
+            forEachMatch(q, id -> {
+                Book b = docs.get(id);
+                top.offer(b, Math.max(1, b.relevance(q)));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.page(offset, limit);
+    }
+
+    /**
+     * Typo-tolerant ranked search: books with a title, author or ISBN within
+     * {@code maxEdits} edits of the query, scored by {@link FuzzyMatcher#score}.
+     *
+     * <p>Candidates come from the gram postings by pigeonhole: k edits can spoil at most k
+     * of any k + 1 disjoint pieces of the query, so a field within k edits contains one of
+     * them exactly. The pieces are the grams of up to three characters whose postings are
+     * shortest together, and only books in those postings are checked with the
+     * bit-parallel matcher. A query no longer than k matches every book.
+     */
+    public SearchPage fuzzySearch(String query, int maxEdits, int offset, int limit) {
+        TopHits top = topHits(offset, limit);
+        FuzzyMatcher matcher = new FuzzyMatcher(query, maxEdits);
+        String q = matcher.pattern();
+        lock.readLock().lock();
+        try {
+            int[] candidates = q.length() > maxEdits ? fuzzyCandidates(q, maxEdits + 1) : null;
+            if (candidates == null) {
+                for (Book b : docs) top.offer(b, matcher.score(b));
+            } else {
+                for (int id : candidates) {
+                    Book b = docs.get(id);
+                    top.offer(b, matcher.score(b));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.page(offset, limit);
+    }
+
+    /** Heap for one page of results; rejects a negative offset or a limit below 1. */
+    public static TopHits topHits(int offset, int limit) {
+        if (offset < 0 || limit < 1) throw new IllegalArgumentException("Need offset >= 0 and limit >= 1");
+        return new TopHits((int) Math.min(Integer.MAX_VALUE - 8, (long) offset + limit));
+    }
+
+    /** Document ids matching the folded query, ascending. Caller holds the read lock. */
+    private void forEachMatch(String q, IntConsumer action) {
+        if (q.isEmpty()) {
+            for (int id = 0; id < docs.size(); id++) action.accept(id);
+            return;
+        }
+        int[] byTitleOrIsbn = matchingDocs(q);
+        int[] byAuthor = matchingAuthors(q);
+        if (byAuthor.length == 0) {
+            for (int id : byTitleOrIsbn) action.accept(id);
+            return;
+        }
+        // merge in document order; BitSet keeps it allocation-light for big author hits
+        BitSet hits = new BitSet(docs.size());
+        for (int id : byTitleOrIsbn) hits.set(id);
+        for (int a : byAuthor) {
+            Postings p = docsByAuthor.get(a);
+            for (int n = 0; n < p.size; n++) hits.set(p.ids[n]);
+        }
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) action.accept(id);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try { return docs.size(); } finally { lock.readLock().unlock(); }
+    }
+
+    static String fold(String s) { return Book.fold(s); }
+
+    /** Title split into runs of letters/digits and runs of everything else, as token ids. */
+    private int[] tokenize(String title) {
+        int[] ids = new int[8];
+        int n = 0;
+        for (int i = 0; i < title.length(); ) {
+            boolean word = Character.isLetterOrDigit(title.charAt(i));
+            int j = i + 1;
+            while (j < title.length() && Character.isLetterOrDigit(title.charAt(j)) == word) j++;
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = tokens.intern(title.substring(i, j));
+            i = j;
+        }
+        return n == 0 ? NO_IDS : Arrays.copyOf(ids, n);
+    }
+
+    // ===== Helpers (callers hold the lock) =====
+
+    private String foldedTitle(int[] title) {
+        if (title.length == 1) return tokens.folded(title[0]);
+        StringBuilder sb = new StringBuilder();
+        for (int t : title) sb.append(tokens.folded(t));
+        return sb.toString();
+    }
+
+    private void indexAuthor(int author, int doc) {
+        while (docsByAuthor.size() <= author) docsByAuthor.add(null);
+        Postings docsOf = docsByAuthor.get(author);
+        if (docsOf == null) {
+            docsByAuthor.set(author, docsOf = new Postings());
+            String f = authors.folded(author);
+            // author ids come from a shared dictionary, so they may arrive out of order
+            for (int len = 1; len <= MAX_GRAM; len++) {
+                for (int i = 0; i + len <= f.length(); i++) {
+                    authorGrams.computeIfAbsent(gram(f, i, len), k -> new Postings()).insert(author);
+                }
+            }
+        }
+        docsOf.add(doc);
+    }
+
+    private static void indexField(Map<Long, Postings> postings, String f, int id) {
+        for (int len = 1; len <= MAX_GRAM; len++) {
+            for (int i = 0; i + len <= f.length(); i++) {
+                postings.computeIfAbsent(gram(f, i, len), k -> new Postings()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Documents with a field containing one of {@code pieces} disjoint grams of q, picked
+     * so their postings are shortest together; ascending and duplicate-free. Null when
+     * those postings hold more ids than there are books, so scanning them all is cheaper.
+     */
+    private int[] fuzzyCandidates(String q, int pieces) {
+        int m = q.length();
+        long[] cost = new long[m * MAX_GRAM]; // ids in the postings of the gram at i of length l
+        for (int i = 0; i < m; i++) {
+            for (int l = 1; l <= MAX_GRAM && i + l <= m; l++) cost[i * MAX_GRAM + l - 1] = gramIds(gram(q, i, l));
+        }
+        // best[j][i]: fewest ids for j disjoint grams within q[0, i); len[j][i]: length of the
+        // gram ending at i, or 0 when q[i - 1] is left out
+        long[][] best = new long[pieces + 1][m + 1];
+        int[][] len = new int[pieces + 1][m + 1];
+        for (int j = 1; j <= pieces; j++) {
+            best[j][0] = Long.MAX_VALUE;
+            for (int i = 1; i <= m; i++) {
+                best[j][i] = best[j][i - 1];
+                for (int l = 1; l <= Math.min(MAX_GRAM, i); l++) {
+                    if (best[j - 1][i - l] == Long.MAX_VALUE) continue;
+                    long c = best[j - 1][i - l] + cost[(i - l) * MAX_GRAM + l - 1];
+                    if (c < best[j][i]) { best[j][i] = c; len[j][i] = l; }
+                }
+            }
+        }
+        if (best[pieces][m] > docs.size()) return null;
+        int[] res = new int[(int) best[pieces][m]];
+        int n = 0;
+        for (int j = pieces, i = m; j > 0; ) {
+            int l = len[j][i];
+            if (l == 0) { i--; continue; }
+            long key = gram(q, i - l, l);
+            Postings p = postings.get(key);
+            if (p != null) { System.arraycopy(p.ids, 0, res, n, p.size); n += p.size; }
+            Postings byAuthor = authorGrams.get(key);
+            if (byAuthor != null) {
+                for (int k = 0; k < byAuthor.size; k++) {
+                    Postings docsOf = docsByAuthor.get(byAuthor.ids[k]);
+                    System.arraycopy(docsOf.ids, 0, res, n, docsOf.size);
+                    n += docsOf.size;
+                }
+            }
+            i -= l;
+            j--;
+        }
+        Arrays.sort(res, 0, n);
+        int distinct = 0;
+        for (int k = 0; k < n; k++) if (distinct == 0 || res[k] != res[distinct - 1]) res[distinct++] = res[k];
+        return Arrays.copyOf(res, distinct);
+    }
+
+    /** Ids in the postings of a gram: its title and ISBN documents plus its authors' documents. */
+    private long gramIds(long key) {
+        Postings p = postings.get(key);
+        long ids = p == null ? 0 : p.size;
+        Postings byAuthor = authorGrams.get(key);
+        if (byAuthor != null) for (int k = 0; k < byAuthor.size; k++) ids += docsByAuthor.get(byAuthor.ids[k]).size;
+        return ids;
+    }
+
+    /** Documents whose title or ISBN contains q, ascending. */
+    private int[] matchingDocs(String q) {
+        if (q.length() <= MAX_GRAM) return ids(postings.get(gram(q, 0, q.length())));
+        Postings[] lists = trigramPostings(postings, q);
+        if (lists == null) return NO_IDS;
+        int[] res = new int[lists[0].size];
+        int n = 0;
+        for (int k = 0; k < lists[0].size; k++) {
+            int id = lists[0].ids[k];
+            if (inAll(lists, id) && (foldedTitle(titles.get(id)).contains(q) || isbns.get(id).contains(q))) res[n++] = id;
+        }
+        return Arrays.copyOf(res, n);
+    }
+
+    /** Authors whose name contains q. */
+    private int[] matchingAuthors(String q) {
+        if (q.length() <= MAX_GRAM) return ids(authorGrams.get(gram(q, 0, q.length())));
+        Postings[] lists = trigramPostings(authorGrams, q);
+        if (lists == null) return NO_IDS;
+        int[] res = new int[lists[0].size];
+        int n = 0;
+        for (int k = 0; k < lists[0].size; k++) {
+            int a = lists[0].ids[k];
+            if (inAll(lists, a) && authors.folded(a).contains(q)) res[n++] = a;
+        }
+        return Arrays.copyOf(res, n);
+    }
+
+    /** Postings of every distinct trigram of q, smallest first; null when one is missing. */
+    private static Postings[] trigramPostings(Map<Long, Postings> postings, String q) {
+        Postings[] lists = new Postings[q.length() - MAX_GRAM + 1];
+        int n = 0;
+        for (int i = 0; i + MAX_GRAM <= q.length(); i++) {
+            Postings p = postings.get(gram(q, i, MAX_GRAM));
+            if (p == null) return null;
+            boolean seen = false;
+            for (int j = 0; j < n && !seen; j++) seen = lists[j] == p;
+            if (!seen) lists[n++] = p;
+        }
+        lists = Arrays.copyOf(lists, n);
+        Arrays.sort(lists, (x, y) -> Integer.compare(x.size, y.size));
+        return lists;
+    }
+
+    private static boolean inAll(Postings[] lists, int id) {
+        for (int j = 1; j < lists.length; j++) {
+            if (Arrays.binarySearch(lists[j].ids, 0, lists[j].size, id) < 0) return false;
+        }
+        return true;
+    }
+
+    private static int[] ids(Postings p) { return p == null ? NO_IDS : Arrays.copyOf(p.ids, p.size); }
+
+    /** Packs a gram of up to three UTF-16 chars and its length into one key. */
+    private static long gram(String s, int from, int len) {
+        long key = (long) len << 48;
+        for (int i = 0; i < len; i++) key |= (long) s.charAt(from + i) << (32 - 16 * i);
+        return key;
+    }
+
+    /** Sorted, duplicate-free list of ids. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        /** Append an id no smaller than the last one. */
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        /** Insert an id anywhere, keeping the list sorted. */
+        void insert(int id) {
+            if (size == 0 || ids[size - 1] < id) { add(id); return; }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Parallel full-catalog scan for queries no index can answer, such as ad-hoc filters.
+ *
+ * <p>The catalog is cut into fixed segments of consecutive books, small enough that a
+ * segment's books stay in cache while one worker filters them and numerous enough for
+ * work stealing to even out the load. Fork-join tasks split the segment range in halves
+ * down to single segments, each segment collects its hits, and the segments are then
+ * concatenated in order, so results are in catalog order whatever the thread count.
+ * Catalogs below the threshold, or without random access, are scanned on the caller's
+ * thread.
+ *
+ * <p>Thread-safe; predicates are called from pool threads and must be too.
+ */
+public final class CatalogScan {
+    public static final int DEFAULT_SEGMENT = 8_192;
+    public static final int DEFAULT_THRESHOLD = 65_536;
+
+    private final ForkJoinPool pool;
+    private final int segment;
+    private final int threshold;
+
+    /** Scans on the common pool with the default segment size and threshold. */
+    public CatalogScan() { this(ForkJoinPool.commonPool(), DEFAULT_SEGMENT, DEFAULT_THRESHOLD); }
+
+    /**
+     * @param pool      pool whose parallelism bounds the workers
+     * @param segment   books per leaf task
+     * @param threshold catalogs smaller than this are scanned sequentially
+     */
+    public CatalogScan(ForkJoinPool pool, int segment, int threshold) {
+        if (segment < 1) throw new IllegalArgumentException("segment must be positive: " + segment);
+        this.pool = pool;
+        this.segment = segment;
+        this.threshold = threshold;
+    }
+
+    /** Books whose title, author or ISBN contains the query, ignoring case, in catalog order. */
+    public List<Book> search(List<Book> catalog, String query) {
+        String k = Book.fold(query);
+        return filter(catalog, b -> b.matchesFolded(k));
+    }
+
+    /** Books accepted by the filter, in catalog order. */
+    public List<Book> filter(List<Book> catalog, Predicate<? super Book> filter) {
+        int n = catalog.size();
+        if (n < threshold || !(catalog instanceof RandomAccess) || pool.getParallelism() < 2) {
+            List<Book> res = new ArrayList<>();
+            for (Book b : catalog) if (filter.test(b)) res.add(b);
+            return res;
+        }
+        int segments = (n + segment - 1) / segment;
+        // one slot per segment, each filled by the task that scans it
+        List<List<Book>> parts = new ArrayList<>(Collections.<List<Book>>nCopies(segments, null));
+        pool.invoke(new Scan(catalog, filter, parts, 0, segments));
+        int total = 0;
+        for (List<Book> p : parts) total += p.size();
+        List<Book> res = new ArrayList<>(total);
+        for (List<Book> p : parts) res.addAll(p);
+        return res;
+    }
+
+    private final class Scan extends RecursiveAction {
+        private final List<Book> catalog;
+        private final Predicate<? super Book> filter;
+        private final List<List<Book>> parts;
+        private final int from, to; // segment numbers
+
+        Scan(List<Book> catalog, Predicate<? super Book> filter, List<List<Book>> parts, int from, int to) {
+            this.catalog = catalog; this.filter = filter; this.parts = parts; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Scan(catalog, filter, parts, from, mid), new Scan(catalog, filter, parts, mid, to));
+                return;
+            }
+            List<Book> hits = new ArrayList<>();
+            for (int i = from * segment, end = Math.min(catalog.size(), i + segment); i < end; i++) {
+                Book b = catalog.get(i);
+                if (filter.test(b)) hits.add(b);
+            }
+            parts.set(from, hits);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.library.domain.search;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often each key was seen recently.
+ * Every counter is halved once the number of increments reaches ten times the capacity,
+ * so old popularity fades. Each key maps to one {@code long} per row and uses one of the
+ * four counters its row owns in that word.
+ *
+ * Not thread-safe.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+        table = new long[size];
+        sampleSize = 10 * Math.max(16, capacity);
+    }
+
+    /** Estimated count of the key, 0 to 15. */
+    int frequency(Object key) {
+        int h = spread(key.hashCode()), min = 15;
+        for (int row = 0; row < 4; row++) min = Math.min(min, (int) (table[index(h, row)] >>> shift(h, row)) & 0xf);
+        return min;
+    }
+
+    void increment(Object key) {
+        int h = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int i = index(h, row), s = shift(h, row);
+            if (((table[i] >>> s) & 0xf) != 0xf) {
+                table[i] += 1L << s;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions /= 2;
+    }
+
+    private int index(int h, int row) {
+        long x = (h + SEEDS[row]) * SEEDS[row];
+        return (int) ((x + (x >>> 32)) & (table.length - 1));
+    }
+
+    /** Bit offset of the row's counter: row r owns nibbles 4r..4r+3 of the word. */
+    private static int shift(int h, int row) { return ((row << 2) + ((h >>> (row << 3)) & 3)) << 2; }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        return h;
+    }
+}
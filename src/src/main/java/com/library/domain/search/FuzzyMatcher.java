@@ -0,0 +1,127 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.Arrays;
+
+/**
+ * Approximate substring matching: the distance of a text is the fewest single-character
+ * insertions, deletions and substitutions that turn some substring of it into the query,
+ * ignoring case. A distance of 0 is a plain {@link Book#matches(String)} hit.
+ *
+ * <p>Queries of up to 64 characters use Myers' bit-parallel algorithm, one pass over the
+ * text with a handful of word operations per character; longer ones fall back to the
+ * textbook dynamic program. Matching a query of up to 64 characters allocates nothing.
+ *
+ * <p>Immutable and thread-safe.
+ */
+public final class FuzzyMatcher {
+    /** Largest edit bound accepted; beyond it nearly every title matches a short query. */
+    public static final int MAX_EDITS = 3;
+
+    private final String pattern;
+    private final int maxEdits;
+    // Myers' Peq table: bit i set where pattern.charAt(i) == c
+    private final long[] ascii = new long[128];
+    private final char[] otherChars;
+    private final long[] otherMasks;
+
+    /**
+     * @param query    text to look for
+     * @param maxEdits largest distance that still counts as a match, 0 to {@link #MAX_EDITS}
+     */
+    public FuzzyMatcher(String query, int maxEdits) {
+        if (maxEdits < 0 || maxEdits > MAX_EDITS) {
+            throw new IllegalArgumentException("maxEdits must be between 0 and " + MAX_EDITS + ": " + maxEdits);
+        }
+        this.pattern = Book.fold(query);
+        this.maxEdits = maxEdits;
+        int w = Math.min(pattern.length(), 64);
+        otherChars = pattern.substring(0, w).chars().filter(c -> c >= 128).distinct().sorted()
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString().toCharArray();
+        otherMasks = new long[otherChars.length];
+        for (int i = 0; i < w; i++) {
+            char c = pattern.charAt(i);
+            if (c < 128) ascii[c] |= 1L << i;
+            else otherMasks[Arrays.binarySearch(otherChars, c)] |= 1L << i;
+        }
+    }
+
+    /** Edits allowed for a query of this length: none up to 3 chars, 1 up to 6, else 2. */
+    public static int defaultEdits(int queryLength) {
+        return queryLength <= 3 ? 0 : queryLength <= 6 ? 1 : 2;
+    }
+
+    /** The case-folded query. */
+    public String pattern() { return pattern; }
+
+    public int maxEdits() { return maxEdits; }
+
+    /**
+     * Ranking score of a book, or 0 when no field is within {@link #maxEdits()}. Fewer
+     * edits always rank higher; among equal distances the fields at that distance add up
+     * their {@link Book#TITLE_WEIGHT weights}.
+     */
+    public int score(Book book) {
+        int t = distance(book.getTitle()), a = distance(book.getAuthor()), i = distance(book.getIsbn());
+        int best = Math.min(t, Math.min(a, i));
+        if (best > maxEdits) return 0;
+        int weight = (t == best ? Book.TITLE_WEIGHT : 0) + (a == best ? Book.AUTHOR_WEIGHT : 0)
+                + (i == best ? Book.ISBN_WEIGHT : 0);
+        return (maxEdits - best + 1) * 8 + weight;
+    }
+
+    /** Smallest edit distance between the query and any substring of {@code text}. */
+    public int distance(CharSequence text) {
+        int m = pattern.length();
+        if (m == 0) return 0;
+        return m <= 64 ? myers(text, m) : dynamic(text, m);
+    }
+
+    private int myers(CharSequence text, int m) {
+        long high = 1L << (m - 1);
+        long pv = -1L, mv = 0;
+        int score = m, best = m;
+        for (int j = 0; j < text.length() && best > 0; j++) {
+            long eq = peq(Character.toLowerCase(text.charAt(j)));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & high) != 0) score++;
+            else if ((mh & high) != 0) score--;
+            // no carry into row 0: a match may start anywhere in the text
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            best = Math.min(best, score);
+        }
+        return best;
+    }
+
+    private long peq(char c) {
+        if (c < 128) return ascii[c];
+        int i = Arrays.binarySearch(otherChars, c);
+        return i < 0 ? 0 : otherMasks[i];
+    }
+
+    /** Sellers' O(m·n) column DP, for queries too long for one machine word. */
+    private int dynamic(CharSequence text, int m) {
+        int[] col = new int[m + 1];
+        for (int i = 0; i <= m; i++) col[i] = i;
+        int best = m;
+        for (int j = 0; j < text.length() && best > 0; j++) {
+            char c = Character.toLowerCase(text.charAt(j));
+            int diag = 0; // row 0 stays 0
+            for (int i = 1; i <= m; i++) {
+                int up = col[i];
+                col[i] = Math.min(Math.min(col[i] + 1, col[i - 1] + 1), diag + (pattern.charAt(i - 1) == c ? 0 : 1));
+                diag = up;
+            }
+            best = Math.min(best, col[m]);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,197 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search result pages with W-TinyLFU eviction: new pages enter a small
+ * LRU window, and a page leaving the window only displaces the main area's least recently
+ * used page if a {@link FrequencySketch} says it was asked for more often. The main area
+ * is a segmented LRU whose protected part holds pages hit at least twice, so a burst of
+ * one-off queries cannot flush the reading-list and popular-author queries.
+ *
+ * <p>Pages hold the books themselves, and availability is read from the book when it is
+ * displayed, so borrowing and returning never make a cached page stale. A catalog change
+ * must be reported through {@link #invalidate}, which drops exactly the cached queries
+ * the book matches. A page computed while an invalidation ran is returned but not cached.
+ *
+ * <p>Thread-safe; searches run outside the cache's lock.
+ */
+public final class SearchCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    // batches larger than this many (entry, book) checks just clear the cache
+    private static final long MAX_PRECISE_CHECKS = 1L << 20;
+
+    /** What was searched for; {@code maxEdits} is -1 for an exact (substring) search. */
+    public record Query(String text, int maxEdits, int offset, int limit) {
+        public static Query exact(String query, int offset, int limit) {
+            return new Query(Book.fold(query), -1, offset, limit);
+        }
+
+        public static Query fuzzy(String query, int maxEdits, int offset, int limit) {
+            return new Query(Book.fold(query), maxEdits, offset, limit);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size) {
+        public double hitRate() { return hits + misses == 0 ? 0 : hits / (double) (hits + misses); }
+    }
+
+    private final int windowCapacity, protectedCapacity, mainCapacity;
+    private final Map<Query, Node> nodes = new HashMap<>();
+    private final FrequencySketch sketch;
+    private final Node window = new Node(null, null), probation = new Node(null, null), protect = new Node(null, null);
+    private int windowSize, probationSize, protectedSize;
+    private long hits, misses, evictions, invalidations, epoch;
+
+    public SearchCache() { this(DEFAULT_CAPACITY); }
+
+    /** @param capacity most pages kept, at least 2 */
+    public SearchCache(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2: " + capacity);
+        windowCapacity = Math.max(1, capacity / 100);
+        mainCapacity = capacity - windowCapacity;
+        protectedCapacity = mainCapacity * 4 / 5;
+        sketch = new FrequencySketch(capacity);
+    }
+
+    /** The cached page for the query, or the result of {@code search}, which is cached. */
+    public SearchPage get(Query query, Supplier<SearchPage> search) {
+        long seen;
+        synchronized (this) {
+            sketch.increment(query);
+            Node n = nodes.get(query);
+            if (n != null) {
+                hits++;
+                touch(n);
+                return n.page;
+            }
+            misses++;
+            seen = epoch;
+        }
+        SearchPage page = search.get();
+        synchronized (this) {
+            if (seen == epoch && !nodes.containsKey(query)) admit(new Node(query, page));
+        }
+        return page;
+    }
+
+    /** Drop every cached page the book matches, after it was added or removed. */
+    public void invalidate(Book book) { invalidate(List.of(book)); }
+
+    public synchronized void invalidate(List<Book> books) {
+        if (books.isEmpty()) return;
+        epoch++;
+        if ((long) books.size() * nodes.size() > MAX_PRECISE_CHECKS) {
+            invalidateAll();
+            return;
+        }
+        nodes.values().removeIf(n -> {
+            for (Book b : books) {
+                if (n.affectedBy(b)) {
+                    unlink(n);
+                    invalidations++;
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        invalidations += nodes.size();
+        nodes.clear();
+        for (Node head : new Node[] {window, probation, protect}) head.prev = head.next = head;
+        windowSize = probationSize = protectedSize = 0;
+    }
+
+    public synchronized Stats stats() { return new Stats(hits, misses, evictions, invalidations, nodes.size()); }
+
+    // ===== W-TinyLFU (callers hold the lock) =====
+
+    private void touch(Node n) {
+        if (n.queue == window) {
+            moveToFront(n, window);
+        } else if (n.queue == probation) {
+            unlink(n);
+            link(n, protect);
+            if (protectedSize > protectedCapacity) {
+                Node demoted = protect.prev;
+                unlink(demoted);
+                link(demoted, probation);
+            }
+        } else {
+            moveToFront(n, protect);
+        }
+    }
+
+    private void admit(Node n) {
+        nodes.put(n.query, n);
+        link(n, window);
+        if (windowSize <= windowCapacity) return;
+        Node candidate = window.prev;
+        unlink(candidate);
+        if (probationSize + protectedSize < mainCapacity) {
+            link(candidate, probation);
+            return;
+        }
+        Node victim = probationSize > 0 ? probation.prev : protect.prev;
+        Node loser = sketch.frequency(candidate.query) > sketch.frequency(victim.query) ? victim : candidate;
+        if (loser == victim) {
+            unlink(victim);
+            link(candidate, probation);
+        }
+        nodes.remove(loser.query);
+        evictions++;
+    }
+
+    private void moveToFront(Node n, Node head) {
+        unlink(n);
+        link(n, head);
+    }
+
+    private void link(Node n, Node head) {
+        n.queue = head;
+        n.next = head.next;
+        n.prev = head;
+        head.next.prev = n;
+        head.next = n;
+        resize(head, 1);
+    }
+
+    private void unlink(Node n) {
+        if (n.queue == null) return;
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        resize(n.queue, -1);
+        n.queue = null;
+    }
+
+    private void resize(Node head, int delta) {
+        if (head == window) windowSize += delta;
+        else if (head == probation) probationSize += delta;
+        else protectedSize += delta;
+    }
+
+    /** A cached page in one of three circular LRU lists; the list heads are sentinels. */
+    private static final class Node {
+        final Query query;
+        final SearchPage page;
+        FuzzyMatcher matcher;
+        Node queue, prev = this, next = this;
+
+        Node(Query query, SearchPage page) { this.query = query; this.page = page; }
+
+        /** Would adding or removing the book change this page? Only if it matches the query. */
+        boolean affectedBy(Book b) {
+            if (query.maxEdits() < 0) return b.matchesFolded(query.text());
+            if (matcher == null) matcher = new FuzzyMatcher(query.text(), query.maxEdits());
+            return matcher.score(b) > 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results.
+ *
+ * @param books  hits on this page, best first
+ * @param offset rank of the first hit on this page, from 0
+ * @param limit  page size that was asked for
+ * @param total  number of books matching the query
+ */
+public record SearchPage(List<Book> books, int offset, int limit, long total) {
+    public boolean hasMore() { return offset + books.size() < total; }
+}
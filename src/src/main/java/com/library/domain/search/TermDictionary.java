@@ -0,0 +1,61 @@
+package com.library.domain.search;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings into dense {@code int} ids, starting at 0. Each distinct term is
+ * stored once, together with its case-folded form, so callers can share one canonical
+ * {@code String} per term and compare or search by id without lowercasing again.
+ *
+ * <p>Thread-safe: lookups of known terms take no lock, new terms are added under the
+ * dictionary's monitor.
+ */
+public final class TermDictionary {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // written under this, published by the volatile writes and the put into ids
+    private volatile String[] terms = new String[64];
+    private volatile String[] folded = new String[64];
+    private int size;
+
+    /**
+     * @return the id of {@code term}, assigning the next free id if it is new
+     */
+    public int intern(String term) {
+        Integer id = ids.get(term);
+        return id != null ? id : add(term);
+    }
+
+    /** Id of a term already interned, or -1. */
+    public int find(String term) {
+        Integer id = ids.get(term);
+        return id == null ? -1 : id;
+    }
+
+    /** The shared instance equal to {@code term}. */
+    public String canonical(String term) { return term(intern(term)); }
+
+    public String term(int id) { return terms[id]; }
+
+    /** Lower-cased ({@link java.util.Locale#ROOT}) form of the term. */
+    public String folded(int id) { return folded[id]; }
+
+    public synchronized int size() { return size; }
+
+    private synchronized int add(String term) {
+        Integer id = ids.get(term);
+        if (id != null) return id;
+        String[] t = terms, f = folded;
+        if (size == t.length) {
+            t = Arrays.copyOf(t, size * 2);
+            f = Arrays.copyOf(f, size * 2);
+        }
+        t[size] = term;
+        f[size] = CatalogIndex.fold(term);
+        terms = t;
+        folded = f;
+        ids.put(term, size);
+        return size++;
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the {@code k} best-scoring books seen so far in a bounded binary min-heap, so
+ * ranking a result set of any size takes O(k) memory. Higher scores rank first; equal
+ * scores keep the order the books were offered in.
+ *
+ * Not thread-safe.
+ */
+public final class TopHits {
+    private final int k;
+    private long offered;
+    private int size;
+    private int[] scores = new int[16];
+    private long[] seqs = new long[16];
+    private Book[] books = new Book[16];
+
+    /** @param k how many hits to keep; at least 1 */
+    public TopHits(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+    }
+
+    /** Offer a matching book. Books scoring 0 or less are ignored. */
+    public void offer(Book book, int score) {
+        if (score <= 0) return;
+        long seq = offered++;
+        if (size < k) {
+            if (size == scores.length) grow();
+            scores[size] = score; seqs[size] = seq; books[size] = book;
+            up(size++);
+        } else if (better(score, seq, 0)) {
+            scores[0] = score; seqs[0] = seq; books[0] = book;
+            down(0);
+        }
+    }
+
+    /** Number of books offered with a positive score. */
+    public long total() { return offered; }
+
+    /**
+     * The kept hits ranked best first, from {@code offset}, at most {@code limit} of them.
+     * Empties the heap.
+     */
+    public SearchPage page(int offset, int limit) {
+        Book[] ranked = new Book[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = books[0];
+            size--;
+            scores[0] = scores[size]; seqs[0] = seqs[size]; books[0] = books[size];
+            books[size] = null;
+            down(0);
+        }
+        List<Book> res = new ArrayList<>(Math.max(0, Math.min(limit, ranked.length - offset)));
+        for (int i = offset; i < ranked.length && i - offset < limit; i++) res.add(ranked[i]);
+        return new SearchPage(res, offset, limit, offered);
+    }
+
+    /** Does (score, seq) outrank the hit at heap slot i? */
+    private boolean better(int score, long seq, int i) {
+        return score > scores[i] || (score == scores[i] && seq < seqs[i]);
+    }
+
+    private void up(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], seqs[parent], i)) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void down(int i) {
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, worst = i;
+            if (l < size && !better(scores[l], seqs[l], worst)) worst = l;
+            if (r < size && !better(scores[r], seqs[r], worst)) worst = r;
+            if (worst == i) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+        long q = seqs[a]; seqs[a] = seqs[b]; seqs[b] = q;
+        Book x = books[a]; books[a] = books[b]; books[b] = x;
+    }
+
+    private void grow() {
+        int cap = (int) Math.min((long) scores.length * 2, k);
+        scores = Arrays.copyOf(scores, cap);
+        seqs = Arrays.copyOf(seqs, cap);
+        books = Arrays.copyOf(books, cap);
+    }
+}
@@ -8,16 +8,14 @@ public class BorrowingDomainService {
 
 
     public boolean borrowBook(User user, Book book) {
-        if (!book.isAvailable()) return false;
-        book.markBorrowed();
+        if (!book.tryMarkBorrowed()) return false;
         user.addBorrowed(book);
         return true;
     }
 
     public boolean returnBook(User user, Book book) {
-        if (!user.getBorrowed().contains(book)) return false;
+        if (!user.removeBorrowed(book)) return false;
         book.markReturned();
-        user.removeBorrowed(book);
         return true;
     }
 }
@@ -1,6 +1,7 @@
 package com.library.domain.service;
 
 import com.library.domain.model.Loan;
+import com.library.domain.repository.LoanRepository;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.util.List;
@@ -8,7 +9,15 @@ import java.util.stream.Collectors;
 
 public class OverdueService {
     private final Clock clock;
-    public OverdueService(Clock clock) { this.clock = clock; }
+    private final LoanRepository loanRepo;
+
+    public OverdueService(Clock clock) { this(clock, null); }
+
+    /**
+     * Indexed mode: {@link #findOverdues()} asks the repository for open loans due
+     * before today, touching only loans that are actually overdue.
+     */
+    public OverdueService(Clock clock, LoanRepository loanRepo) { this.clock = clock; this.loanRepo = loanRepo; }
 
     public List<Loan> findOverdues(List<Loan> loans) {
         LocalDate today = LocalDate.now(clock);
@@ -16,4 +25,14 @@ public class OverdueService {
                 .filter(l -> !l.isReturned() && today.isAfter(l.getDueDate()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Overdue loans as of the clock's today, earliest due date first.
+     *
+     * @throws IllegalStateException when the service was created without a repository
+     */
+    public List<Loan> findOverdues() {
+        if (loanRepo == null) throw new IllegalStateException("No loan repository configured.");
+        return loanRepo.findOpenDueBefore(LocalDate.now(clock));
+    }
 }
@@ -0,0 +1,229 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Book;
+import com.library.domain.repository.BookRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Catalog stored as parallel arrays instead of one object graph per book:
+ * <ul>
+ *   <li>ISBN-13s made of 13 digits are kept as a {@code long} and found through a
+ *       primitive {@link LongIntHashMap}; any other ISBN goes to a small side map;</li>
+ *   <li>authors are dictionary-encoded to {@code int} ids;</li>
+ *   <li>titles are UTF-8 slices of one shared byte arena;</li>
+ *   <li>availability is one bit per book.</li>
+ * </ul>
+ *
+ * <p>Books handed out are flyweight views over one row. They are created on demand and
+ * not retained; two views of the same row are {@code equals}, and borrowing or returning
+ * through any of them flips the shared availability bit. Books passed to {@code save}
+ * are copied into the columns, so callers should keep the view returned by
+ * {@link #findByIsbn} rather than the original. Replacing a book appends its new title
+ * to the arena; the old bytes are not reclaimed.
+ */
+public class ColumnarBookRepository implements BookRepository {
+    private static final int PAGE_BITS = 1 << 16;
+    private static final long NO_ISBN13 = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap byIsbn13 = new LongIntHashMap(1024);
+    private final Map<String, Integer> byOtherIsbn = new HashMap<>();
+    private final Map<Integer, String> otherIsbns = new HashMap<>();
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private final List<String> authors = new ArrayList<>();
+
+    private long[] isbn13 = new long[1024];
+    private int[] author = new int[1024];
+    private int[] titleAt = new int[1024];
+    private int[] titleLen = new int[1024];
+    private byte[] arena = new byte[16 * 1024];
+    private int arenaSize;
+    private int size;
+    // pages never move once created, so CAS on availability is never lost to a resize
+    private volatile AtomicLongArray[] available = new AtomicLongArray[0];
+
+    public void save(Book book) {
+        lock.writeLock().lock();
+        try {
+            int row = find(book.getIsbn());
+            if (row < 0) append(book);
+            else write(row, book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean saveIfAbsent(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (find(book.getIsbn()) >= 0) return false;
+            append(book);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        lock.readLock().lock();
+        try {
+            int row = find(isbn);
+            return row < 0 ? Optional.empty() : Optional.of(new View(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Book> findAll() { return stream().collect(Collectors.toList()); }
+
+    public Stream<Book> stream() { return IntStream.range(0, count()).mapToObj(View::new); }
+
+    public int count() {
+        lock.readLock().lock();
+        try { return size; } finally { lock.readLock().unlock(); }
+    }
+
+    // ===== Columns (callers hold the lock) =====
+
+    private int find(String isbn) {
+        long key = isbn13(isbn);
+        if (key != NO_ISBN13) return byIsbn13.get(key);
+        return byOtherIsbn.getOrDefault(isbn, -1);
+    }
+
+    private void append(Book book) {
+        int row = size;
+        if (row == isbn13.length) {
+            int cap = row * 2;
+            isbn13 = Arrays.copyOf(isbn13, cap);
+            author = Arrays.copyOf(author, cap);
+            titleAt = Arrays.copyOf(titleAt, cap);
+            titleLen = Arrays.copyOf(titleLen, cap);
+        }
+        if (row == available.length * PAGE_BITS) {
+            AtomicLongArray[] pages = Arrays.copyOf(available, available.length + 1);
+            pages[pages.length - 1] = new AtomicLongArray(PAGE_BITS / 64);
+            available = pages;
+        }
+        long key = isbn13(book.getIsbn());
+        isbn13[row] = key;
+        if (key != NO_ISBN13) byIsbn13.put(key, row);
+        else {
+            byOtherIsbn.put(book.getIsbn(), row);
+            otherIsbns.put(row, book.getIsbn());
+        }
+        write(row, book);
+        size++;
+    }
+
+    private void write(int row, Book book) {
+        author[row] = authorIds.computeIfAbsent(book.getAuthor(), a -> {
+            authors.add(a);
+            return authors.size() - 1;
+        });
+        byte[] t = book.getTitle().getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + t.length > arena.length) {
+            long cap = Math.max((long) arena.length * 2, (long) arenaSize + t.length);
+            if (cap > Integer.MAX_VALUE - 8) throw new IllegalStateException("Title arena full");
+            arena = Arrays.copyOf(arena, (int) cap);
+        }
+        System.arraycopy(t, 0, arena, arenaSize, t.length);
+        titleAt[row] = arenaSize;
+        titleLen[row] = t.length;
+        arenaSize += t.length;
+        setAvailable(row, book.isAvailable());
+    }
+
+    /** The ISBN as a number when it is exactly 13 ASCII digits, else {@link #NO_ISBN13}. */
+    static long isbn13(String isbn) {
+        if (isbn.length() != 13) return NO_ISBN13;
+        long v = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') return NO_ISBN13;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    // ===== Availability bits (lock-free) =====
+
+    private boolean isAvailable(int row) {
+        return (page(row).get((row & (PAGE_BITS - 1)) >>> 6) & bit(row)) != 0;
+    }
+
+    private void setAvailable(int row, boolean on) {
+        AtomicLongArray p = page(row);
+        int w = (row & (PAGE_BITS - 1)) >>> 6;
+        long b = bit(row);
+        if (on) p.getAndAccumulate(w, b, (x, y) -> x | y);
+        else p.getAndAccumulate(w, ~b, (x, y) -> x & y);
+    }
+
+    private boolean casAvailable(int row, boolean expect) {
+        AtomicLongArray p = page(row);
+        int w = (row & (PAGE_BITS - 1)) >>> 6;
+        long b = bit(row);
+        while (true) {
+            long cur = p.get(w);
+            if (((cur & b) != 0) != expect) return false;
+            if (p.compareAndSet(w, cur, cur ^ b)) return true;
+        }
+    }
+
+    private AtomicLongArray page(int row) { return available[row / PAGE_BITS]; }
+
+    private static long bit(int row) { return 1L << (row & 63); }
+
+    /** One row of the store seen as a {@link Book}. */
+    private final class View extends Book {
+        private final int row;
+
+        View(int row) { this.row = row; }
+
+        @Override public String getTitle() {
+            lock.readLock().lock();
+            try { return new String(arena, titleAt[row], titleLen[row], StandardCharsets.UTF_8); }
+            finally { lock.readLock().unlock(); }
+        }
+
+        @Override public String getAuthor() {
+            lock.readLock().lock();
+            try { return authors.get(author[row]); } finally { lock.readLock().unlock(); }
+        }
+
+        @Override public String getIsbn() {
+            lock.readLock().lock();
+            try {
+                long key = isbn13[row];
+                if (key == NO_ISBN13) return otherIsbns.get(row);
+                char[] digits = new char[13];
+                for (int i = 12; i >= 0; i--, key /= 10) digits[i] = (char) ('0' + key % 10);
+                return new String(digits);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override public boolean isAvailable() { return ColumnarBookRepository.this.isAvailable(row); }
+        @Override public void markBorrowed() { setAvailable(row, false); }
+        @Override public void markReturned() { setAvailable(row, true); }
+        @Override public boolean tryMarkBorrowed() { return casAvailable(row, true); }
+        @Override public boolean tryMarkReturned() { return casAvailable(row, false); }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof View v && v.row == row && v.store() == ColumnarBookRepository.this;
+        }
+
+        @Override public int hashCode() { return row; }
+
+        private ColumnarBookRepository store() { return ColumnarBookRepository.this; }
+    }
+}
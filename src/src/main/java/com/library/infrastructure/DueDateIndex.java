@@ -0,0 +1,71 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Loan;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Calendar queue of open loans: one bucket per due date (epoch day), buckets kept in
+ * due-date order. Listing the loans due before a day walks only the buckets before it,
+ * and buckets are dropped as soon as they empty.
+ *
+ * Readers never block. Writers lock a stripe chosen by due day, so creating and
+ * dropping a bucket cannot race with an insert into it.
+ */
+class DueDateIndex {
+    private static final int STRIPES = 64;
+
+    private final ConcurrentSkipListMap<Long, Set<Loan>> buckets = new ConcurrentSkipListMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    DueDateIndex() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Object();
+    }
+
+    void add(Loan loan) {
+        long day = loan.getDueDate().toEpochDay();
+        synchronized (stripe(day)) {
+            buckets.computeIfAbsent(day, d -> ConcurrentHashMap.newKeySet()).add(loan);
+        }
+    }
+
+    void remove(Loan loan) {
+        long day = loan.getDueDate().toEpochDay();
+        synchronized (stripe(day)) {
+            Set<Loan> bucket = buckets.get(day);
+            if (bucket != null && bucket.remove(loan) && bucket.isEmpty()) buckets.remove(day);
+        }
+    }
+
+    /** Loans due strictly before the given day, earliest due date first. */
+    List<Loan> dueBefore(LocalDate day) {
+        return collect(buckets.headMap(day.toEpochDay(), false));
+    }
+
+    /** Loans due on or after {@code from} and strictly before {@code to}, earliest due date first. */
+    List<Loan> dueBetween(LocalDate from, LocalDate to) {
+        long lo = from.toEpochDay(), hi = to.toEpochDay();
+        return lo >= hi ? new ArrayList<>() : collect(buckets.subMap(lo, true, hi, false));
+    }
+
+    /** The earliest due date in the index. */
+    Optional<LocalDate> firstDay() {
+        Map.Entry<Long, Set<Loan>> first = buckets.firstEntry();
+        return first == null ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(first.getKey()));
+    }
+
+    /** All loans in the index, earliest due date first. */
+    List<Loan> all() {
+        return collect(buckets);
+    }
+
+    private static List<Loan> collect(Map<Long, Set<Loan>> range) {
+        List<Loan> res = new ArrayList<>();
+        for (Set<Loan> bucket : range.values()) res.addAll(bucket);
+        return res;
+    }
+
+    private Object stripe(long day) { return stripes[(int) (day & (STRIPES - 1))]; }
+}
@@ -0,0 +1,202 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Fine;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.repository.FineRepository;
+import com.library.infrastructure.wal.WriteAheadLog;
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link FineRepository} that survives restarts. Every posting is logged to a
+ * {@link WriteAheadLog} and applied to an {@link InMemoryFineRepository} once it is
+ * durable, so a failed write changes no balance; reads never touch the disk. Postings are
+ * applied in log order and payments are capped by the balance when applied, so replay
+ * reproduces the same balances.
+ *
+ * <p>Overdue accruals are logged with each loan's new fined-through day, one record per
+ * batch, and the days are kept by loan (user, ISBN and borrow date) across restarts, so
+ * an accrual run repeated after a crash charges only the days that were not logged. A
+ * loan's day is dropped, and the drop logged, once the loan is settled on return.
+ */
+public class DurableFineRepository implements FineRepository, Closeable {
+    public static final long DEFAULT_CHECKPOINT_EVERY = 1_000_000;
+
+    private static final byte SET = 1, ACCRUED = 2, PAID = 3, ACCRUED_LOANS = 4, SETTLED = 5;
+
+    private final InMemoryFineRepository fines = new InMemoryFineRepository();
+    private final Map<String, Long> finedThrough = new ConcurrentHashMap<>();
+    private final WriteAheadLog wal;
+
+    public DurableFineRepository(Path dir) throws IOException { this(dir, DEFAULT_CHECKPOINT_EVERY); }
+
+    public DurableFineRepository(Path dir, long checkpointEvery) throws IOException {
+        this.wal = WriteAheadLog.open(dir, "fines", new State(), checkpointEvery);
+    }
+
+    public void save(Fine fine) {
+        String id = fine.getUser().getId();
+        wal.write(b -> {
+            DataOutput out = b.record(SET);
+            out.writeUTF(id);
+            out.writeLong(fine.getAgorot());
+            return () -> {
+                fines.set(id, fine.getAgorot());
+                return null;
+            };
+        });
+    }
+
+    public Optional<Fine> findByUser(User user) { return fines.findByUser(user); }
+
+    public void accrue(User user, long agorot) {
+        String id = user.getId();
+        wal.write(b -> {
+            DataOutput out = b.record(ACCRUED);
+            out.writeUTF(id);
+            out.writeLong(agorot);
+            return () -> {
+                fines.accrue(id, agorot);
+                return null;
+            };
+        });
+    }
+
+    public long pay(User user, long agorot) {
+        String id = user.getId();
+        if (agorot <= 0) return 0;
+        return wal.write(b -> {
+            DataOutput out = b.record(PAID);
+            out.writeUTF(id);
+            out.writeLong(agorot);
+            return () -> fines.pay(id, agorot);
+        });
+    }
+
+    public long balance(User user) { return fines.balance(user); }
+
+    /**
+     * The later of the loan's own day and the day logged for it, which survives restarts.
+     * A later logged day is moved into the loan first, so accruals priced from it can
+     * compare-and-set the loan's day like any other.
+     */
+    @Override
+    public long finedThrough(Loan loan) {
+        long through = loan.getFinedThrough();
+        if (finedThrough.isEmpty()) return through;
+        Long logged = finedThrough.get(loanKey(loan));
+        if (logged == null) return through;
+        while (through < logged && !loan.advanceFinedThrough(through, logged)) through = loan.getFinedThrough();
+        return loan.getFinedThrough();
+    }
+
+    @Override
+    public List<Accrual> accrueAll(List<Accrual> batch) {
+        if (batch.isEmpty()) return List.of();
+        // the loan's day is the claim that keeps concurrent runs from charging a day twice;
+        // balances and logged days change only once the record is durable
+        List<Accrual> claimed = new ArrayList<>(batch.size());
+        try {
+            return wal.write(b -> {
+                for (Accrual a : batch) {
+                    finedThrough(a.loan()); // priced before a restart's logged day reached the loan
+                    if (a.loan().advanceFinedThrough(a.from(), a.through())) claimed.add(a);
+                }
+                if (claimed.isEmpty()) return () -> claimed;
+                DataOutput out = b.record(ACCRUED_LOANS);
+                out.writeInt(claimed.size());
+                for (Accrual a : claimed) {
+                    out.writeUTF(a.loan().getUser().getId());
+                    out.writeUTF(loanKey(a.loan()));
+                    out.writeLong(a.through());
+                    out.writeLong(a.agorot());
+                }
+                return () -> {
+                    for (Accrual a : claimed) {
+                        fines.accrue(a.loan().getUser().getId(), a.agorot());
+                        finedThrough.merge(loanKey(a.loan()), a.through(), Math::max);
+                    }
+                    return claimed;
+                };
+            });
+        } catch (RuntimeException e) {
+            for (Accrual a : claimed) a.loan().revertFinedThrough(a.through(), a.from()); // charge them next run
+            throw e;
+        }
+    }
+
+    /** Forget the returned loan's fined-through day; it is never charged again. */
+    @Override
+    public void settled(Loan loan) {
+        if (!loan.isReturned()) return;
+        String key = loanKey(loan);
+        if (!finedThrough.containsKey(key)) return;
+        finedThrough(loan); // the loan keeps the day for this process
+        wal.write(b -> {
+            b.record(SETTLED).writeUTF(key);
+            return () -> {
+                finedThrough.remove(key);
+                return null;
+            };
+        });
+    }
+
+    /** Snapshot balances now and truncate the log. */
+    public void checkpoint() throws IOException { wal.checkpoint(); }
+
+    public void close() throws IOException { wal.close(); }
+
+    private static String loanKey(Loan l) {
+        return l.getUser().getId() + '/' + l.getBook().getIsbn() + '/' + l.getBorrowDate().toEpochDay();
+    }
+
+    private final class State implements WriteAheadLog.StateMachine {
+        public void restore(DataInput in) throws IOException {
+            for (int n = in.readInt(); n > 0; n--) fines.set(in.readUTF(), in.readLong());
+            for (int n = in.readInt(); n > 0; n--) finedThrough.put(in.readUTF(), in.readLong());
+        }
+
+        public void apply(byte type, DataInput in) throws IOException {
+            if (type == ACCRUED_LOANS) {
+                for (int n = in.readInt(); n > 0; n--) {
+                    String id = in.readUTF(), key = in.readUTF();
+                    long through = in.readLong();
+                    fines.accrue(id, in.readLong());
+                    finedThrough.merge(key, through, Math::max);
+                }
+                return;
+            }
+            if (type == SETTLED) {
+                finedThrough.remove(in.readUTF());
+                return;
+            }
+            String id = in.readUTF();
+            long agorot = in.readLong();
+            switch (type) {
+                case SET -> fines.set(id, agorot);
+                case ACCRUED -> fines.accrue(id, agorot);
+                case PAID -> fines.pay(id, agorot);
+                default -> throw new IOException("Unknown fine record type " + type);
+            }
+        }
+
+        public void snapshot(DataOutput out) throws IOException {
+            Map<String, Long> balances = new HashMap<>();
+            fines.forEachBalance(balances::put);
+            Map<String, Long> loans = new HashMap<>(finedThrough);
+            out.writeInt(balances.size());
+            for (var e : balances.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            out.writeInt(loans.size());
+            for (var e : loans.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.repository.BookRepository;
+import com.library.domain.repository.LoanRepository;
+import com.library.infrastructure.wal.WriteAheadLog;
+import java.io.*;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link LoanRepository} that survives restarts. Loans live in an
+ * {@link InMemoryLoanRepository} with all its indexes. Every save and every return is
+ * logged to a {@link WriteAheadLog} first and reaches the indexes and the loan only once
+ * its record is durable, so a failed write leaves them as they were. A loan returned by
+ * calling {@link Loan#markReturned()} directly is logged after the fact.
+ *
+ * <p>On startup loans are rebuilt from the log. Books are taken from the
+ * {@link BookRepository} and users from the supplied lookup when they are known there;
+ * otherwise they are recreated from the logged fields. Books on open loans are marked
+ * borrowed and added to their user's borrowed list, so circulation picks up where it
+ * stopped.
+ */
+public class DurableLoanRepository implements LoanRepository, Closeable {
+    public static final long DEFAULT_CHECKPOINT_EVERY = 1_000_000;
+
+    private static final byte SAVED = 1, RETURNED = 2, SAVED_ALL = 3, RETURNED_ALL = 4;
+
+    private final InMemoryLoanRepository loans = new InMemoryLoanRepository();
+    // Loan has identity equality, so this maps each instance to its log id
+    private final Map<Loan, Long> ids = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final BookRepository books;
+    private final Function<String, User> users;
+    private final Map<String, Book> recoveredBooks = new HashMap<>();
+    private final Map<String, User> recoveredUsers = new HashMap<>();
+    private final Map<Long, Loan> replayed = new HashMap<>();
+    private final WriteAheadLog wal;
+    // set while a logged return is applied, so the listener doesn't log it again
+    private final ThreadLocal<Boolean> applyingReturn = ThreadLocal.withInitial(() -> false);
+
+    public DurableLoanRepository(Path dir, BookRepository books, Function<String, User> users) throws IOException {
+        this(dir, books, users, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    /**
+     * @param users   finds a live user by id; may return null
+     * @param checkpointEvery records between automatic checkpoints; 0 disables them
+     */
+    public DurableLoanRepository(Path dir, BookRepository books, Function<String, User> users, long checkpointEvery)
+            throws IOException {
+        this.books = books;
+        this.users = users;
+        this.wal = WriteAheadLog.open(dir, "loans", new State(), checkpointEvery);
+        for (Loan l : replayed.values()) {
+            if (l.isReturned()) continue;
+            l.getBook().markBorrowed();
+            if (!l.getUser().getBorrowed().contains(l.getBook())) l.getUser().addBorrowed(l.getBook());
+            l.onReturned(this::logReturn);
+        }
+        replayed.clear();
+        recoveredBooks.clear();
+        recoveredUsers.clear();
+    }
+
+    public void save(Loan loan) {
+        wal.write(b -> {
+            long id = nextId.incrementAndGet();
+            writeLoan(b.record(SAVED), id, loan);
+            return () -> {
+                ids.put(loan, id);
+                loans.save(loan);
+                return null;
+            };
+        });
+        loan.onReturned(this::logReturn);
+    }
+
+    /** Log all the loans in one record, so after a crash either all or none are recovered. */
+    @Override
+    public void saveAll(List<Loan> batch) {
+        if (batch.isEmpty()) return;
+        wal.write(b -> {
+            DataOutput out = b.record(SAVED_ALL);
+            out.writeInt(batch.size());
+            long[] logged = new long[batch.size()];
+            for (int i = 0; i < logged.length; i++) {
+                logged[i] = nextId.incrementAndGet();
+                writeLoan(out, logged[i], batch.get(i));
+            }
+            return () -> {
+                for (int i = 0; i < logged.length; i++) {
+                    ids.put(batch.get(i), logged[i]);
+                    loans.save(batch.get(i));
+                }
+                return null;
+            };
+        });
+        for (Loan loan : batch) loan.onReturned(this::logReturn);
+    }
+
+    /** Log all the returns in one record, then mark the loans returned. */
+    @Override
+    public void markAllReturned(List<Loan> batch) {
+        if (batch.isEmpty()) return;
+        wal.write(b -> {
+            DataOutput out = b.record(RETURNED_ALL);
+            out.writeInt(batch.size());
+            for (Loan loan : batch) out.writeLong(ids.getOrDefault(loan, 0L)); // 0 is never assigned
+            return () -> applyReturns(batch);
+        });
+    }
+
+    public List<Loan> findAll() { return loans.findAll(); }
+    public Stream<Loan> stream() { return loans.stream(); }
+    public Optional<Loan> findOpenLoan(User user, Book book) { return loans.findOpenLoan(user, book); }
+    public List<Loan> findByUser(User user) { return loans.findByUser(user); }
+    public List<Loan> findByBook(Book book) { return loans.findByBook(book); }
+    public List<Loan> findOpen() { return loans.findOpen(); }
+    public List<Loan> findOpenDueBefore(LocalDate day) { return loans.findOpenDueBefore(day); }
+    public Optional<LocalDate> findFirstOpenDueDate() { return loans.findFirstOpenDueDate(); }
+    public List<Loan> findOpenDueBetween(LocalDate from, LocalDate to) { return loans.findOpenDueBetween(from, to); }
+
+    /** Log the return, then mark the loan returned. */
+    public void markReturned(Loan loan) {
+        Long id = ids.get(loan);
+        if (id == null || loan.isReturned()) {
+            loan.markReturned();
+            return;
+        }
+        wal.write(b -> {
+            b.record(RETURNED).writeLong(id);
+            return () -> applyReturns(List.of(loan));
+        });
+    }
+
+    /** Snapshot all loans now and truncate the log. */
+    public void checkpoint() throws IOException { wal.checkpoint(); }
+
+    public void close() throws IOException { wal.close(); }
+
+    private Void applyReturns(List<Loan> batch) {
+        applyingReturn.set(true);
+        try {
+            for (Loan loan : batch) loan.markReturned();
+        } finally {
+            applyingReturn.set(false);
+        }
+        return null;
+    }
+
+    private void logReturn(Loan loan) {
+        Long id = ids.get(loan);
+        if (id == null || applyingReturn.get()) return;
+        wal.write(b -> {
+            b.record(RETURNED).writeLong(id);
+            return () -> null;
+        });
+    }
+
+    private static void writeLoan(DataOutput out, long id, Loan l) throws IOException {
+        out.writeLong(id);
+        out.writeUTF(l.getUser().getId());
+        out.writeUTF(l.getUser().getName());
+        out.writeUTF(l.getBook().getIsbn());
+        out.writeUTF(l.getBook().getTitle());
+        out.writeUTF(l.getBook().getAuthor());
+        out.writeLong(l.getBorrowDate().toEpochDay());
+        out.writeLong(l.getDueDate().toEpochDay());
+        out.writeBoolean(l.isReturned());
+    }
+
+    private void readLoan(DataInput in) throws IOException {
+        long id = in.readLong();
+        String userId = in.readUTF(), userName = in.readUTF();
+        String isbn = in.readUTF(), title = in.readUTF(), author = in.readUTF();
+        LocalDate borrowed = LocalDate.ofEpochDay(in.readLong());
+        LocalDate due = LocalDate.ofEpochDay(in.readLong());
+        boolean returned = in.readBoolean();
+
+        User u = users.apply(userId);
+        if (u == null) u = recoveredUsers.computeIfAbsent(userId, k -> new User(k, userName));
+        Book b = books.findByIsbn(isbn).orElseGet(() -> recoveredBooks.computeIfAbsent(isbn, k -> new Book(title, author, k)));
+        Loan l = new Loan(u, b, borrowed, due);
+        if (returned) l.markReturned();
+        loans.save(l);
+        ids.put(l, id);
+        replayed.put(id, l);
+        nextId.accumulateAndGet(id, Math::max);
+    }
+
+    private final class State implements WriteAheadLog.StateMachine {
+        public void restore(DataInput in) throws IOException {
+            long n = in.readLong();
+            for (long i = 0; i < n; i++) readLoan(in);
+        }
+
+        public void apply(byte type, DataInput in) throws IOException {
+            switch (type) {
+                case SAVED -> readLoan(in);
+                case RETURNED -> {
+                    Loan l = replayed.get(in.readLong());
+                    if (l != null) l.markReturned();
+                }
+                case SAVED_ALL -> {
+                    for (int n = in.readInt(); n > 0; n--) readLoan(in);
+                }
+                case RETURNED_ALL -> {
+                    for (int n = in.readInt(); n > 0; n--) {
+                        Loan l = replayed.get(in.readLong());
+                        if (l != null) l.markReturned();
+                    }
+                }
+                default -> throw new IOException("Unknown loan record type " + type);
+            }
+        }
+
+        public void snapshot(DataOutput out) throws IOException {
+            List<Loan> all = loans.findAll();
+            out.writeLong(all.size());
+            for (Loan l : all) writeLoan(out, ids.get(l), l);
+        }
+    }
+}
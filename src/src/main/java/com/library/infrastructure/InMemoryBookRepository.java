@@ -1,4 +1,36 @@
 package com.library.infrastructure;
 
-public class InMemoryBookRepository {
+import com.library.domain.model.Book;
+import com.library.domain.repository.BookRepository;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe catalog keyed by ISBN. Lookups hit a {@link ConcurrentHashMap}; a
+ * separate queue of ISBNs remembers insertion order for listing.
+ */
+public class InMemoryBookRepository implements BookRepository {
+    private final Map<String, Book> byIsbn = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    public void save(Book book) {
+        if (byIsbn.put(book.getIsbn(), book) == null) order.add(book.getIsbn());
+    }
+
+    public boolean saveIfAbsent(Book book) {
+        if (byIsbn.putIfAbsent(book.getIsbn(), book) != null) return false;
+        order.add(book.getIsbn());
+        return true;
+    }
+
+    public Optional<Book> findByIsbn(String isbn) { return Optional.ofNullable(byIsbn.get(isbn)); }
+
+    public List<Book> findAll() { return stream().collect(Collectors.toList()); }
+
+    public Stream<Book> stream() { return order.stream().map(byIsbn::get); }
+
+    public int count() { return byIsbn.size(); }
 }
@@ -4,9 +4,64 @@ import com.library.domain.model.Fine;
 import com.library.domain.model.User;
 import com.library.domain.repository.FineRepository;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
 
+/**
+ * Lock-free fine ledger. Charges go into a {@link LongAdder}, whose striped cells keep
+ * hot users from contending on one word; payments advance a separate counter with
+ * compare-and-set, capped by what is owed, so the balance never goes negative.
+ */
 public class InMemoryFineRepository implements FineRepository {
-    private final Map<String, Fine> map = new HashMap<>();
-    public void save(Fine fine) { map.put(fine.getUser().getId(), fine); }
-    public Optional<Fine> findByUser(User user) { return Optional.ofNullable(map.get(user.getId())); }
+    private final Map<String, Account> map = new ConcurrentHashMap<>();
+
+    public void save(Fine fine) { set(fine.getUser().getId(), fine.getAgorot()); }
+
+    public Optional<Fine> findByUser(User user) {
+        Account a = map.get(user.getId());
+        return a == null ? Optional.empty() : Optional.of(Fine.ofAgorot(user, a.balance()));
+    }
+
+    public void accrue(User user, long agorot) { accrue(user.getId(), agorot); }
+
+    public long pay(User user, long agorot) { return pay(user.getId(), agorot); }
+
+    public long balance(User user) {
+        Account a = map.get(user.getId());
+        return a == null ? 0 : a.balance();
+    }
+
+    // ===== By user id, for repositories layered on top of this one =====
+
+    void set(String userId, long agorot) {
+        Account a = account(userId);
+        a.charged.add(agorot - a.balance());
+    }
+
+    void accrue(String userId, long agorot) { account(userId).charged.add(agorot); }
+
+    long pay(String userId, long agorot) {
+        Account a = map.get(userId);
+        if (a == null || agorot <= 0) return 0;
+        while (true) {
+            long paid = a.paid.get();
+            long applied = Math.min(agorot, Math.max(0, a.charged.sum() - paid));
+            if (applied == 0 || a.paid.compareAndSet(paid, paid + applied)) return applied;
+        }
+    }
+
+    void forEachBalance(ObjLongConsumer<String> action) {
+        map.forEach((id, a) -> action.accept(id, a.balance()));
+    }
+
+    private Account account(String userId) { return map.computeIfAbsent(userId, k -> new Account()); }
+
+    private static final class Account {
+        final LongAdder charged = new LongAdder();
+        final AtomicLong paid = new AtomicLong();
+
+        long balance() { return charged.sum() - paid.get(); }
+    }
 }
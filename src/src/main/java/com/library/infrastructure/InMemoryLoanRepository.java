@@ -1,11 +1,76 @@
 package com.library.infrastructure;
 
+import com.library.domain.model.Book;
 import com.library.domain.model.Loan;
+import com.library.domain.model.User;
 import com.library.domain.repository.LoanRepository;
-import java.util.ArrayList; import java.util.List;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
 
+/**
+ * Keeps the full loan history plus indexes by user id, by ISBN, of open loans and of
+ * open loans by due date, so none of the queries scan the history. Loans leave the
+ * open indexes as soon as {@link Loan#markReturned()} is called, whoever calls it.
+ *
+ * All structures are concurrent, so any number of threads may save and return loans
+ * at once; reads are weakly consistent snapshots.
+ */
 public class InMemoryLoanRepository implements LoanRepository {
-    private final List<Loan> loans = new ArrayList<>();
-    public void save(Loan loan) { loans.add(loan); }
+    private final Queue<Loan> loans = new ConcurrentLinkedQueue<>();
+    private final Map<String, Queue<Loan>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Loan>> byBook = new ConcurrentHashMap<>();
+    private final Map<OpenKey, Loan> open = new ConcurrentHashMap<>();
+    private final DueDateIndex due = new DueDateIndex();
+
+    public void save(Loan loan) {
+        loans.add(loan);
+        byUser.computeIfAbsent(loan.getUser().getId(), k -> new ConcurrentLinkedQueue<>()).add(loan);
+        byBook.computeIfAbsent(loan.getBook().getIsbn(), k -> new ConcurrentLinkedQueue<>()).add(loan);
+        if (!loan.isReturned()) {
+            open.put(OpenKey.of(loan), loan);
+            due.add(loan);
+            loan.onReturned(this::closed);
+        }
+    }
+
     public List<Loan> findAll() { return new ArrayList<>(loans); }
+
+    public Stream<Loan> stream() { return loans.stream(); }
+
+    public Optional<Loan> findOpenLoan(User user, Book book) {
+        return Optional.ofNullable(open.get(new OpenKey(user.getId(), book.getIsbn())));
+    }
+
+    public List<Loan> findByUser(User user) {
+        return new ArrayList<>(byUser.getOrDefault(user.getId(), EMPTY));
+    }
+
+    public List<Loan> findByBook(Book book) {
+        return new ArrayList<>(byBook.getOrDefault(book.getIsbn(), EMPTY));
+    }
+
+    /** Open loans, earliest due date first. */
+    public List<Loan> findOpen() { return due.all(); }
+
+    public List<Loan> findOpenDueBefore(LocalDate day) { return due.dueBefore(day); }
+
+    public Optional<LocalDate> findFirstOpenDueDate() { return due.firstDay(); }
+
+    public List<Loan> findOpenDueBetween(LocalDate from, LocalDate to) { return due.dueBetween(from, to); }
+
+    public void markReturned(Loan loan) { loan.markReturned(); }
+
+    private void closed(Loan loan) {
+        open.remove(OpenKey.of(loan), loan);
+        due.remove(loan);
+    }
+
+    private static final Queue<Loan> EMPTY = new ArrayDeque<>(0);
+
+    private record OpenKey(String userId, String isbn) {
+        static OpenKey of(Loan l) { return new OpenKey(l.getUser().getId(), l.getBook().getIsbn()); }
+    }
 }
@@ -0,0 +1,153 @@
+package com.library.infrastructure.snapshot;
+
+import com.library.domain.model.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Versioned binary snapshot of the catalog, laid out to be memory-mapped and queried
+ * in place by {@link MappedCatalog} without parsing.
+ *
+ * <pre>
+ * header   magic "LIBCAT01", version, count, slot count, section offsets
+ * records  count x long     offset of the book's strings, relative to the strings section
+ * slots    slots x int      open-addressing ISBN hash table; record index + 1, 0 = empty
+ * avail    count bits       1 = available
+ * strings  per book: u16 length + UTF-8 title, u16 + author, u16 + ISBN
+ * </pre>
+ *
+ * Snapshots are written to a temporary file, forced to disk and moved over the target
+ * atomically, so readers only ever see a complete snapshot; a failed write deletes the
+ * temporary file.
+ */
+public final class CatalogSnapshot {
+    static final long MAGIC = 0x4C49424341543031L; // "LIBCAT01"
+    static final int VERSION = 1;
+    static final int HEADER = 64;
+
+    private CatalogSnapshot() {}
+
+    /**
+     * Write the books, with their current availability, to {@code target}. Later books
+     * with an ISBN already written are skipped.
+     *
+     * @return number of books written
+     */
+    public static long write(Path target, List<Book> books) throws IOException {
+        int n = books.size();
+        int slots = slotsFor(n);
+        int[] table = new int[slots];
+        long[] offsets = new long[n];
+        int[] source = new int[n]; // written index -> index in books
+        long[] avail = new long[(n + 63) >>> 6];
+
+        long recordsAt = HEADER;
+        long slotsAt = recordsAt + 8L * n;
+        long availAt = slotsAt + 4L * slots;
+        long stringsAt = align8(availAt + 8L * avail.length);
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        int count = 0;
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+                ch.position(stringsAt);
+                long rel = 0;
+                for (int src = 0; src < n; src++) {
+                    Book b = books.get(src);
+                    byte[] isbn = b.getIsbn().getBytes(StandardCharsets.UTF_8);
+                    int slot = probe(table, slots, hash(isbn), b.getIsbn(), books, source);
+                    if (slot < 0) continue; // duplicate ISBN
+                    table[slot] = count + 1;
+                    source[count] = src;
+                    if (b.isAvailable()) avail[count >>> 6] |= 1L << (count & 63);
+                    offsets[count] = rel;
+                    rel += putString(ch, buf, b.getTitle().getBytes(StandardCharsets.UTF_8));
+                    rel += putString(ch, buf, b.getAuthor().getBytes(StandardCharsets.UTF_8));
+                    rel += putString(ch, buf, isbn);
+                    count++;
+                }
+                drain(ch, buf);
+                long length = stringsAt + rel;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Catalog snapshot of " + length + " bytes exceeds a single 2 GiB mapping");
+                }
+
+                ch.position(recordsAt);
+                for (int i = 0; i < count; i++) put(ch, buf, 8).putLong(offsets[i]);
+                for (int i = count; i < n; i++) put(ch, buf, 8).putLong(-1);
+                for (int s : table) put(ch, buf, 4).putInt(s);
+                for (long w : avail) put(ch, buf, 8).putLong(w);
+                drain(ch, buf);
+
+                ch.position(0);
+                buf.putLong(MAGIC).putInt(VERSION).putInt(slots)
+                        .putLong(count).putLong(recordsAt).putLong(slotsAt).putLong(availAt).putLong(stringsAt).putLong(length);
+                drain(ch, buf);
+                ch.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return count;
+    }
+
+    /** Power-of-two table at most half full. */
+    static int slotsFor(int n) {
+        int slots = Integer.highestOneBit(Math.max(4, n) * 2 - 1) << 1;
+        if (slots < 0) throw new IllegalArgumentException("Too many books for one snapshot: " + n);
+        return slots;
+    }
+
+    /** FNV-1a over the UTF-8 ISBN, with a final mix so the low bits spread. */
+    static int hash(byte[] isbn) {
+        int h = 0x811C9DC5;
+        for (byte b : isbn) h = (h ^ (b & 0xFF)) * 0x01000193;
+        return h ^ (h >>> 16);
+    }
+
+    /** Free slot for the ISBN, or -1 when it was already written. */
+    private static int probe(int[] table, int slots, int hash, String isbn, List<Book> books, int[] source) {
+        for (int i = hash & (slots - 1); ; i = (i + 1) & (slots - 1)) {
+            if (table[i] == 0) return i;
+            if (books.get(source[table[i] - 1]).getIsbn().equals(isbn)) return -1;
+        }
+    }
+
+    private static long putString(FileChannel ch, ByteBuffer buf, byte[] s) throws IOException {
+        if (s.length > 0xFFFF) throw new IOException("Field longer than 65535 bytes");
+        put(ch, buf, 2).putShort((short) s.length);
+        int off = 0;
+        while (off < s.length) {
+            if (!buf.hasRemaining()) drain(ch, buf);
+            int len = Math.min(buf.remaining(), s.length - off);
+            buf.put(s, off, len);
+            off += len;
+        }
+        return 2L + s.length;
+    }
+
+    private static ByteBuffer put(FileChannel ch, ByteBuffer buf, int bytes) throws IOException {
+        if (buf.remaining() < bytes) drain(ch, buf);
+        return buf;
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    private static long align8(long v) { return (v + 7) & ~7L; }
+}
@@ -0,0 +1,137 @@
+package com.library.infrastructure.snapshot;
+
+import com.library.domain.model.Book;
+import com.library.domain.repository.BookRepository;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link BookRepository} backed by a memory-mapped {@link CatalogSnapshot}. Opening only
+ * maps the file and checks the header; ISBN lookups probe the mapped hash table and
+ * compare bytes in place. A {@link Book} is decoded the first time it is asked for and
+ * the same instance is returned from then on, so its availability can change like any
+ * other book's.
+ *
+ * <p>Saving a book whose ISBN is in the snapshot replaces that entry's view; new ISBNs
+ * are kept in memory after the mapped books. Neither is written back to the file — take
+ * a new snapshot for that.
+ */
+public class MappedCatalog implements BookRepository {
+    private final MappedByteBuffer map;
+    private final int count, slots;
+    private final int recordsAt, slotsAt, availAt, stringsAt;
+    private final AtomicReferenceArray<Book> views;
+    private final Map<String, Book> added = new ConcurrentHashMap<>();
+    private final Queue<String> order = new ConcurrentLinkedQueue<>();
+
+    private MappedCatalog(MappedByteBuffer map) throws IOException {
+        this.map = map;
+        if (map.capacity() < CatalogSnapshot.HEADER || map.getLong(0) != CatalogSnapshot.MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = map.getInt(8);
+        if (version != CatalogSnapshot.VERSION) throw new IOException("Unsupported catalog snapshot version " + version);
+        this.slots = map.getInt(12);
+        this.count = Math.toIntExact(map.getLong(16));
+        this.recordsAt = Math.toIntExact(map.getLong(24));
+        this.slotsAt = Math.toIntExact(map.getLong(32));
+        this.availAt = Math.toIntExact(map.getLong(40));
+        this.stringsAt = Math.toIntExact(map.getLong(48));
+        if (map.getLong(56) != map.capacity()) throw new IOException("Truncated catalog snapshot");
+        this.views = new AtomicReferenceArray<>(count);
+    }
+
+    /** Map a snapshot written by {@link CatalogSnapshot#write}. */
+    public static MappedCatalog open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Catalog snapshot exceeds a single 2 GiB mapping");
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            map.order(ByteOrder.BIG_ENDIAN);
+            return new MappedCatalog(map); // the mapping outlives the channel
+        }
+    }
+
+    public void save(Book book) {
+        int i = indexOf(book.getIsbn());
+        if (i >= 0) views.set(i, book);
+        else if (added.put(book.getIsbn(), book) == null) order.add(book.getIsbn());
+    }
+
+    public boolean saveIfAbsent(Book book) {
+        if (indexOf(book.getIsbn()) >= 0 || added.putIfAbsent(book.getIsbn(), book) != null) return false;
+        order.add(book.getIsbn());
+        return true;
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        int i = indexOf(isbn);
+        return Optional.ofNullable(i >= 0 ? view(i) : added.get(isbn));
+    }
+
+    public List<Book> findAll() { return stream().collect(Collectors.toList()); }
+
+    public Stream<Book> stream() {
+        return Stream.concat(IntStream.range(0, count).mapToObj(this::view), order.stream().map(added::get));
+    }
+
+    public int count() { return count + added.size(); }
+
+    /** Number of books in the mapped snapshot, excluding any added since it was opened. */
+    public int mappedCount() { return count; }
+
+    private Book view(int i) {
+        Book b = views.get(i);
+        if (b != null) return b;
+        int at = stringsAt + (int) map.getLong(recordsAt + 8 * i);
+        String title = string(at);
+        at += 2 + length(at);
+        String author = string(at);
+        at += 2 + length(at);
+        Book fresh = new Book(title, author, string(at));
+        if ((map.getLong(availAt + 8 * (i >>> 6)) & (1L << (i & 63))) == 0) fresh.markBorrowed();
+        b = views.compareAndExchange(i, null, fresh);
+        return b != null ? b : fresh;
+    }
+
+    /** Record index of the ISBN in the snapshot, or -1. */
+    private int indexOf(String isbn) {
+        byte[] key = isbn.getBytes(StandardCharsets.UTF_8);
+        for (int s = CatalogSnapshot.hash(key) & (slots - 1); ; s = (s + 1) & (slots - 1)) {
+            int rec = map.getInt(slotsAt + 4 * s) - 1;
+            if (rec < 0) return -1;
+            if (isbnEquals(rec, key)) return rec;
+        }
+    }
+
+    private boolean isbnEquals(int rec, byte[] key) {
+        int at = stringsAt + (int) map.getLong(recordsAt + 8 * rec);
+        at += 2 + length(at);
+        at += 2 + length(at);
+        if (length(at) != key.length) return false;
+        for (int k = 0; k < key.length; k++) {
+            if (map.get(at + 2 + k) != key[k]) return false;
+        }
+        return true;
+    }
+
+    private int length(int at) { return map.getShort(at) & 0xFFFF; }
+
+    private String string(int at) {
+        byte[] bytes = new byte[length(at)];
+        map.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,529 @@
+package com.library.infrastructure.wal;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only, checksummed binary log with group commit, backing a {@link StateMachine}.
+ *
+ * <p>Any number of threads call {@link #write}. Each call encodes its change as one or
+ * more records, waits until they are on disk and only then applies the change in memory,
+ * so a write that fails leaves memory as it was. Changes are applied in the order their
+ * records were appended, so replay rebuilds exactly the state that was in memory. A
+ * single writer thread takes
+ * everything appended since its last pass, writes it through one {@link FileChannel} call
+ * and makes it durable with one {@code force}, so a burst of concurrent saves costs one
+ * fsync rather than one each.
+ *
+ * <p>On disk every record is {@code [int length][byte type][payload][int crc32]}. On open
+ * the log replays the newest snapshot plus the records after it, stopping at the first
+ * torn or corrupt record and truncating the file there.
+ *
+ * <p>A checkpoint writes a snapshot of the whole state, then starts a new log generation
+ * and deletes the old one. Checkpoints run automatically every {@code checkpointEvery}
+ * records, so recovery time stays bounded. Snapshots are written to a temporary file and
+ * moved into place atomically, so a crash at any point leaves a complete generation.
+ */
+public final class WriteAheadLog implements Closeable {
+
+    /** The in-memory state a log rebuilds and snapshots. */
+    public interface StateMachine {
+        /** Load state from a snapshot written by {@link #snapshot}. */
+        void restore(DataInput in) throws IOException;
+        /** Re-apply one logged record during recovery. */
+        void apply(byte type, DataInput payload) throws IOException;
+        /** Write the whole current state. Called with all writers paused. */
+        void snapshot(DataOutput out) throws IOException;
+    }
+
+    /** A change logged and applied atomically with respect to checkpoints. */
+    @FunctionalInterface
+    public interface Mutation<T> {
+        /**
+         * Write the change's records and return the step that applies it in memory, which
+         * runs once they are durable. Nothing in memory may change before then.
+         */
+        Supplier<T> log(Batch batch) throws IOException;
+    }
+
+    private static final int LOG_MAGIC = 0x4C57414C;  // "LWAL"
+    private static final int SNAP_MAGIC = 0x4C534E50; // "LSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int MAX_RECORD = 64 << 20;
+
+    private final Path dir;
+    private final String name;
+    private final StateMachine state;
+    private final long checkpointEvery;
+
+    // writers share it until their change is applied, checkpoints take it exclusively
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Condition turn = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16); // guarded by lock
+    private long appended, durable, applied;                   // guarded by lock
+    private IOException failure;                               // guarded by lock
+    private boolean closed;                                    // guarded by lock
+    private FileChannel channel;                               // guarded by lock
+    private volatile long generation;
+
+    private final AtomicLong sinceCheckpoint = new AtomicLong();
+    private final AtomicBoolean checkpointQueued = new AtomicBoolean();
+    private volatile Exception checkpointFailure;
+    private final ExecutorService checkpointer;
+    private final Thread writer;
+
+    private WriteAheadLog(Path dir, String name, StateMachine state, long checkpointEvery) throws IOException {
+        this.dir = dir;
+        this.name = name;
+        this.state = state;
+        this.checkpointEvery = checkpointEvery;
+        Files.createDirectories(dir);
+        recover();
+        this.checkpointer = Executors.newSingleThreadExecutor(r -> daemon(r, name + "-checkpoint"));
+        this.writer = daemon(this::writeLoop, name + "-wal-writer");
+        writer.start();
+    }
+
+    /**
+     * Open (or create) the log named {@code name} in {@code dir} and rebuild {@code state}
+     * from it.
+     *
+     * @param checkpointEvery records between automatic checkpoints; 0 disables them
+     */
+    public static WriteAheadLog open(Path dir, String name, StateMachine state, long checkpointEvery) throws IOException {
+        return new WriteAheadLog(dir, name, state, checkpointEvery);
+    }
+
+    /**
+     * Make a change's records durable, then apply it. Checkpoints are held off until it is
+     * applied, so a snapshot never misses a change whose records are in the old log. A
+     * mutation that writes no records is applied at once and must not change logged state.
+     *
+     * @return what the mutation's apply step returned
+     * @throws IllegalStateException if the log is closed; nothing is applied
+     * @throws UncheckedIOException if the log can no longer be written; nothing is applied
+     */
+    public <T> T write(Mutation<T> mutation) {
+        Batch batch = new Batch();
+        T result;
+        gate.readLock().lock();
+        try {
+            Supplier<T> change;
+            long seq;
+            try {
+                change = mutation.log(batch);
+                batch.finish();
+                if (batch.count == 0) return change.get();
+                seq = enqueue(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            awaitDurable(seq);
+            result = applyInTurn(seq, change);
+        } finally {
+            gate.readLock().unlock();
+        }
+        if (checkpointEvery > 0 && sinceCheckpoint.addAndGet(batch.count) >= checkpointEvery
+                && checkpointQueued.compareAndSet(false, true)) {
+            try {
+                checkpointer.execute(this::backgroundCheckpoint);
+            } catch (RejectedExecutionException closing) {
+                checkpointQueued.set(false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot the state, start a new log generation and delete the previous one.
+     */
+    public void checkpoint() throws IOException {
+        gate.writeLock().lock();
+        try {
+            if (isClosed()) throw new IllegalStateException("Log is closed.");
+            awaitDurable(appendedSoFar());
+            long next = generation + 1;
+            Path tmp = dir.resolve(name + "-" + next + ".snap.tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(ch), crc), 1 << 16));
+                out.writeInt(SNAP_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(next);
+                state.snapshot(out);
+                out.flush();
+                out.writeInt((int) crc.getValue());
+                out.flush();
+                ch.force(true);
+            }
+            Files.move(tmp, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            FileChannel fresh = createLog(next);
+            FileChannel old;
+            lock.lock();
+            try {
+                old = channel;
+                channel = fresh;
+            } finally {
+                lock.unlock();
+            }
+            old.close();
+            Files.deleteIfExists(logFile(generation));
+            Files.deleteIfExists(snapshotFile(generation));
+            generation = next;
+            sinceCheckpoint.set(0);
+            syncDir();
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+
+    public long generation() { return generation; }
+
+    /** Why the last automatic checkpoint failed; null when it succeeded or none has run. */
+    public Exception checkpointFailure() { return checkpointFailure; }
+
+    /** Flush everything appended so far, stop the writer and close the file. */
+    @Override
+    public void close() throws IOException {
+        checkpointer.shutdown();
+        gate.writeLock().lock();
+        try {
+            lock.lock();
+            try {
+                if (closed) return;
+                closed = true;
+                work.signal();
+            } finally {
+                lock.unlock();
+            }
+            joinUninterruptibly(writer);
+            channel.close();
+            lock.lock();
+            try {
+                if (failure != null) throw failure;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+
+    // ===== Group commit =====
+
+    private long enqueue(Batch batch) {
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Log is closed.");
+            if (failure != null) throw new UncheckedIOException(failure);
+            if (pending.remaining() < batch.size()) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + batch.size()));
+                pending.flip();
+                bigger.put(pending);
+                pending = bigger;
+            }
+            pending.put(batch.bytes(), 0, batch.size());
+            appended++;
+            work.signal();
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Apply a durable change once every change appended before it has been applied. */
+    private <T> T applyInTurn(long seq, Supplier<T> change) {
+        lock.lock();
+        try {
+            while (applied < seq - 1) turn.awaitUninterruptibly();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return change.get();
+        } finally {
+            lock.lock();
+            try {
+                applied = seq;
+                turn.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean isClosed() {
+        lock.lock();
+        try { return closed; } finally { lock.unlock(); }
+    }
+
+    private long appendedSoFar() {
+        lock.lock();
+        try { return appended; } finally { lock.unlock(); }
+    }
+
+    private void awaitDurable(long seq) {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (durable < seq && failure == null) {
+                try { flushed.await(); } catch (InterruptedException e) { interrupted = true; }
+            }
+            if (durable < seq) throw new UncheckedIOException(failure);
+        } finally {
+            lock.unlock();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        ByteBuffer batch = ByteBuffer.allocate(pending.capacity());
+        while (true) {
+            long upto;
+            FileChannel ch;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) work.awaitUninterruptibly();
+                if (pending.position() == 0) return;
+                ByteBuffer full = pending;
+                pending = batch.capacity() >= full.capacity() ? batch : ByteBuffer.allocate(full.capacity());
+                batch = full;
+                upto = appended;
+                ch = channel;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) ch.write(batch);
+                ch.force(false);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+            lock.lock();
+            try {
+                durable = upto;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void backgroundCheckpoint() {
+        try {
+            if (!isClosed()) checkpoint();
+            checkpointFailure = null;
+        } catch (IOException | RuntimeException e) {
+            checkpointFailure = e; // the log still grows; the next checkpoint retries
+        } finally {
+            checkpointQueued.set(false);
+        }
+    }
+
+    // ===== Recovery =====
+
+    private void recover() throws IOException {
+        Pattern p = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.(snap|log|snap\\.tmp)");
+        long snap = -1, log = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                Matcher m = p.matcher(f.getFileName().toString());
+                if (!m.matches()) continue;
+                long g = Long.parseLong(m.group(1));
+                switch (m.group(2)) {
+                    case "snap" -> snap = Math.max(snap, g);
+                    case "log" -> log = Math.max(log, g);
+                    default -> Files.delete(f); // unfinished checkpoint
+                }
+            }
+        }
+        generation = snap >= 0 ? snap : Math.max(log, 0);
+        if (snap >= 0) restore(snapshotFile(generation));
+        Path logFile = logFile(generation);
+        if (Files.exists(logFile)) {
+            long good = replay(logFile);
+            if (good < HEADER) {
+                Files.delete(logFile);
+                channel = createLog(generation);
+            } else {
+                channel = FileChannel.open(logFile, StandardOpenOption.WRITE);
+                channel.truncate(good);
+                channel.position(good);
+            }
+        } else {
+            channel = createLog(generation);
+        }
+        // anything older is covered by the snapshot we just loaded
+        for (long g = generation - 1; g >= 0 && g >= generation - 2; g--) {
+            Files.deleteIfExists(logFile(g));
+            Files.deleteIfExists(snapshotFile(g));
+        }
+    }
+
+    private void restore(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != SNAP_MAGIC) throw new IOException("Not a snapshot: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            in.readLong();
+            state.restore(in);
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(raw).readInt() != expected) throw new IOException("Corrupt snapshot: " + file);
+        }
+    }
+
+    /** Replays every intact record and returns the offset just past the last one. */
+    private long replay(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            try {
+                if (in.readInt() != LOG_MAGIC) throw new IOException("Not a log: " + file);
+                int version = in.readInt();
+                if (version != VERSION) throw new IOException("Unsupported log version " + version + ": " + file);
+                in.readLong();
+            } catch (EOFException torn) {
+                return 0;
+            }
+            long good = HEADER;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] frame;
+                int stored;
+                try {
+                    int len = in.readInt();
+                    if (len < 0 || len > MAX_RECORD) break;
+                    frame = new byte[len + 1];
+                    in.readFully(frame);
+                    stored = in.readInt();
+                } catch (EOFException torn) {
+                    break;
+                }
+                crc.reset();
+                crc.update(frame);
+                if ((int) crc.getValue() != stored) break;
+                state.apply(frame[0], new DataInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1)));
+                good += 4 + frame.length + 4;
+            }
+            return good;
+        }
+    }
+
+    private FileChannel createLog(long gen) throws IOException {
+        FileChannel ch = FileChannel.open(logFile(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(LOG_MAGIC).putInt(VERSION).putLong(gen);
+        header.flip();
+        while (header.hasRemaining()) ch.write(header);
+        ch.force(true);
+        return ch;
+    }
+
+    private Path logFile(long gen) { return dir.resolve(name + "-" + gen + ".log"); }
+    private Path snapshotFile(long gen) { return dir.resolve(name + "-" + gen + ".snap"); }
+
+    private void syncDir() {
+        // makes the rename and deletes durable; not every platform can open a directory
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException ignored) { }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static void joinUninterruptibly(Thread t) {
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try { t.join(); } catch (InterruptedException e) { interrupted = true; }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Records written by one {@link Mutation}. They are appended together, so they
+     * reach the disk in the same fsync.
+     */
+    public static final class Batch {
+        private final Frames buf = new Frames();
+        private final DataOutputStream out = new DataOutputStream(buf);
+        private final CRC32 crc = new CRC32();
+        private int start = -1;
+        private int count;
+
+        /**
+         * Start a new record of the given type.
+         *
+         * @return where to write the record's payload
+         */
+        public DataOutput record(byte type) throws IOException {
+            finish();
+            start = buf.size();
+            out.writeInt(0); // length, patched in finish()
+            out.writeByte(type);
+            count++;
+            return out;
+        }
+
+        void finish() throws IOException {
+            if (start < 0) return;
+            int len = buf.size() - start - 5;
+            buf.patchInt(start, len);
+            crc.reset();
+            crc.update(buf.bytes(), start + 4, len + 1);
+            out.writeInt((int) crc.getValue());
+            start = -1;
+        }
+
+        int size() { return buf.size(); }
+        byte[] bytes() { return buf.bytes(); }
+    }
+
+    private static final class Frames extends ByteArrayOutputStream {
+        byte[] bytes() { return buf; }
+
+        void patchInt(int at, int v) {
+            buf[at] = (byte) (v >>> 24);
+            buf[at + 1] = (byte) (v >>> 16);
+            buf[at + 2] = (byte) (v >>> 8);
+            buf[at + 3] = (byte) v;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.library.presentation.http;
+
+import com.library.app.AsyncLibraryService;
+import com.library.app.BorrowingService;
+import com.library.app.CatalogService;
+import com.library.app.FineService;
+import com.library.domain.model.Admin;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.repository.BookRepository;
+import com.library.domain.search.SearchPage;
+import com.library.domain.service.OverdueService;
+import com.library.infrastructure.InMemoryBookRepository;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * HTTP/JSON front end over the application services, on the JDK's built-in server with a
+ * virtual thread per request (a bounded pool before Java 21).
+ *
+ * <pre>
+ * GET  /search?q=java[&amp;offset=0][&amp;limit=10][&amp;fuzzy=true]
+ * POST /borrow?user=U1&amp;isbn=9780132350884
+ * POST /return?user=U1&amp;isbn=9780132350884
+ * GET  /overdue[?limit=100]
+ * GET  /balance?user=U1
+ * </pre>
+ *
+ * Parameters may also be sent as an {@code application/x-www-form-urlencoded} body.
+ * Business-rule failures such as "Book not available." answer 409, bad parameters 400 and
+ * unknown users or books 404, each with {@code {"error": message}}; anything else answers
+ * 500 and is logged.
+ *
+ * <p>Small JSON replies wait out Nagle's algorithm and delayed ACKs (about 40 ms each on a
+ * keep-alive connection) unless the JVM runs with {@code -Dsun.net.httpserver.nodelay=true}.
+ * That property applies to every {@code HttpServer} in the process, so the constructor leaves
+ * it alone; {@link #main} and {@link #inMemory} turn it on for their own JVMs.
+ */
+public class LibraryHttpServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_PAGE = 100;
+
+    private static final System.Logger LOG = System.getLogger(LibraryHttpServer.class.getName());
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CatalogService catalog;
+    private final BorrowingService borrowing;
+    private final OverdueService overdue;
+    private final FineService fines;
+    private final BookRepository books;
+    private final Function<String, User> users;
+
+    /**
+     * @param users finds a user by id, or returns null when there is none
+     */
+    public LibraryHttpServer(InetSocketAddress address, CatalogService catalog, BorrowingService borrowing,
+                             OverdueService overdue, FineService fines, BookRepository books,
+                             Function<String, User> users) throws IOException {
+        this.catalog = catalog; this.borrowing = borrowing; this.overdue = overdue; this.fines = fines;
+        this.books = books; this.users = users;
+        server = HttpServer.create(address, 1024);
+        executor = AsyncLibraryService.newThreadPerTaskExecutor(AsyncLibraryService.DEFAULT_MAX_CONCURRENT);
+        server.setExecutor(executor);
+        server.createContext("/search", route("GET", this::search));
+        server.createContext("/borrow", route("POST", this::borrow));
+        server.createContext("/return", route("POST", this::returnBook));
+        server.createContext("/overdue", route("GET", this::overdue));
+        server.createContext("/balance", route("GET", this::balance));
+    }
+
+    public void start() { server.start(); }
+
+    /** The bound port, useful when started on port 0. */
+    public int port() { return server.getAddress().getPort(); }
+
+    /** Stops accepting connections and waits up to a second for open exchanges. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Serves an in-memory catalog of sample books; users are created on first use.
+     *
+     * <pre>
+     * java -cp target/classes com.library.presentation.http.LibraryHttpServer [port]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        noDelay();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        LibraryHttpServer server = inMemory(new InetSocketAddress(port), Clock.systemDefaultZone(), List.of(
+                new Book("Clean Code", "Robert C. Martin", "9780132350884"),
+                new Book("Effective Java", "Joshua Bloch", "9780134685991"),
+                new Book("The Pragmatic Programmer", "Andrew Hunt", "9780201616224")));
+        server.start();
+        System.out.println("Library HTTP API on http://localhost:" + server.port() + "/");
+    }
+
+    /** A server over fresh in-memory repositories holding {@code books}, for demos and load tests. */
+    public static LibraryHttpServer inMemory(InetSocketAddress address, Clock clock, List<Book> books) throws IOException {
+        noDelay();
+        var bookRepo = new InMemoryBookRepository();
+        var loanRepo = new InMemoryLoanRepository();
+        var catalog = new CatalogService(bookRepo);
+        var admin = new Admin("admin", "admin");
+        admin.setLoggedIn(true);
+        catalog.addBooks(admin, books);
+        Map<String, User> registry = new ConcurrentHashMap<>();
+        return new LibraryHttpServer(address, catalog, new BorrowingService(loanRepo, clock),
+                new OverdueService(clock, loanRepo), new FineService(new InMemoryFineRepository()), bookRepo,
+                id -> registry.computeIfAbsent(id, k -> new User(k, k)));
+    }
+
+    /** Turn on TCP_NODELAY for the JDK server unless the launch flags chose; read when the first server starts. */
+    private static void noDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // ===== Routes =====
+
+    private String search(Map<String, String> p) {
+        String q = required(p, "q");
+        int offset = intParam(p, "offset", 0), limit = Math.min(intParam(p, "limit", 10), MAX_PAGE);
+        SearchPage page = Boolean.parseBoolean(p.get("fuzzy"))
+                ? catalog.fuzzySearch(q, offset, limit) : catalog.search(q, offset, limit);
+        StringBuilder sb = new StringBuilder("{\"total\":").append(page.total())
+                .append(",\"offset\":").append(page.offset()).append(",\"books\":[");
+        List<Book> hits = page.books();
+        for (int i = 0; i < hits.size(); i++) {
+            Book b = hits.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"isbn\":").append(quote(b.getIsbn())).append(",\"title\":").append(quote(b.getTitle()))
+                    .append(",\"author\":").append(quote(b.getAuthor())).append(",\"available\":").append(b.isAvailable())
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String borrow(Map<String, String> p) {
+        Loan loan = borrowing.borrow(user(p), book(p));
+        return loan(loan);
+    }
+
+    private String returnBook(Map<String, String> p) {
+        Book book = book(p);
+        borrowing.returnBook(user(p), book);
+        return "{\"isbn\":" + quote(book.getIsbn()) + ",\"returned\":true}";
+    }
+
+    private String overdue(Map<String, String> p) {
+        int limit = Math.max(0, intParam(p, "limit", MAX_PAGE));
+        List<Loan> loans = overdue.findOverdues();
+        StringBuilder sb = new StringBuilder("{\"total\":").append(loans.size()).append(",\"loans\":[");
+        for (int i = 0; i < Math.min(limit, loans.size()); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(loan(loans.get(i)));
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String balance(Map<String, String> p) {
+        User user = user(p);
+        long agorot = fines.balanceAgorot(user);
+        return "{\"user\":" + quote(user.getId()) + ",\"agorot\":" + agorot + ",\"nis\":\"" + nis(agorot) + "\"}";
+    }
+
+    /** Agorot as a shekel amount with two decimals, e.g. -5 as "-0.05". */
+    static String nis(long agorot) {
+        return (agorot < 0 ? "-" : "") + Math.abs(agorot / 100) + "." + String.format("%02d", Math.abs(agorot % 100));
+    }
+
+    private static String loan(Loan l) {
+        return "{\"user\":" + quote(l.getUser().getId()) + ",\"isbn\":" + quote(l.getBook().getIsbn())
+                + ",\"title\":" + quote(l.getBook().getTitle()) + ",\"borrowed\":\"" + l.getBorrowDate()
+                + "\",\"due\":\"" + l.getDueDate() + "\"}";
+    }
+
+    // ===== Plumbing =====
+
+    private interface Route {
+        String handle(Map<String, String> params);
+    }
+
+    /** Thrown for unknown users and books; answered with 404. */
+    private static final class NotFound extends RuntimeException {
+        NotFound(String message) { super(message); }
+    }
+
+    private User user(Map<String, String> p) {
+        String id = required(p, "user");
+        User u = users.apply(id);
+        if (u == null) throw new NotFound("No such user: " + id);
+        return u;
+    }
+
+    private Book book(Map<String, String> p) {
+        String isbn = required(p, "isbn");
+        return books.findByIsbn(isbn).orElseThrow(() -> new NotFound("No such book: " + isbn));
+    }
+
+    private static String required(Map<String, String> p, String name) {
+        String v = p.get(name);
+        if (v == null || v.isBlank()) throw new IllegalArgumentException("Missing parameter: " + name);
+        return v;
+    }
+
+    private static int intParam(Map<String, String> p, String name, int dflt) {
+        String v = p.get(name);
+        return v == null ? dflt : Integer.parseInt(v.trim()); // NumberFormatException is an IllegalArgumentException
+    }
+
+    private static HttpHandler route(String method, Route route) {
+        return exchange -> {
+            try (exchange) {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    send(exchange, 405, error("Use " + method));
+                    return;
+                }
+                int status = 200;
+                String body;
+                try {
+                    body = route.handle(params(exchange));
+                } catch (NotFound e) {
+                    status = 404; body = error(e.getMessage());
+                } catch (IllegalStateException e) {
+                    status = 409; body = error(e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    status = 400; body = error(e.getMessage());
+                } catch (RuntimeException e) {
+                    LOG.log(System.Logger.Level.ERROR,
+                            exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed", e);
+                    status = 500; body = error("Internal error");
+                }
+                send(exchange, status, body);
+            }
+        };
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> p = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), p);
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type != null && type.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), p);
+            }
+        }
+        return p;
+    }
+
+    private static void parse(String query, Map<String, String> into) {
+        if (query == null || query.isEmpty()) return;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq), v = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(k, StandardCharsets.UTF_8), URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message) { return "{\"error\":" + quote(message) + "}"; }
+
+    static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
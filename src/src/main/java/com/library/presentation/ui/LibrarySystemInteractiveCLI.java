@@ -2,24 +2,47 @@ package com.library.presentation.ui;
 
 import com.library.app.AuthService;
 import com.library.app.BorrowingService;
+import com.library.app.CatalogImportService;
 import com.library.app.CatalogService;
+import com.library.app.FineAccrualService;
 import com.library.app.FineService;
+import com.library.app.LoanExportService;
+import com.library.app.schedule.DueDateSweep;
+import com.library.app.schedule.SweepScheduler;
+import com.library.domain.event.EventCounts;
+import com.library.domain.event.EventRing;
+import com.library.domain.event.LoanEvent;
 import com.library.domain.model.Admin;
 import com.library.domain.model.Book;
 import com.library.domain.model.Loan;
 import com.library.domain.model.User;
+import com.library.domain.repository.BookRepository;
+import com.library.domain.repository.FineRepository;
+import com.library.domain.repository.LoanRepository;
+import com.library.domain.search.Autocomplete;
+import com.library.domain.search.CatalogIndex;
 import com.library.domain.service.OverdueService;
+import com.library.infrastructure.DurableFineRepository;
+import com.library.infrastructure.DurableLoanRepository;
+import com.library.infrastructure.InMemoryBookRepository;
 import com.library.infrastructure.InMemoryFineRepository;
 import com.library.infrastructure.InMemoryLoanRepository;
+import com.library.infrastructure.snapshot.CatalogSnapshot;
+import com.library.infrastructure.snapshot.MappedCatalog;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
  * Interactive CLI to manually test Sprint 1 & 2 features.
- * Commands: help, login, logout, add, search, list, borrow, return, loans, overdue, balance, pay, date, exit
+ * Commands: help, login, logout, add, search, fuzzy, more, suggest, cache, events, list, borrow, return, loans, overdue, accrue, sched, balance, pay, date, import, export, snapshot, exit
  *
  * Tips:
  *   add Title|Author|ISBN
@@ -27,42 +50,100 @@ import java.util.stream.Collectors;
  *   borrow ISBN-1
  *   return ISBN-1
  *   date set 2025-02-10
+ *
+ * Loans and fines are kept in memory unless the CLI is started with
+ * {@code --data <dir>}, in which case they are logged there and survive restarts, as do
+ * the checkpoints of the background sweeps. With {@code --catalog <file>} the catalog is
+ * mapped from a snapshot written by 'snapshot': its books can be borrowed and returned
+ * at once, and become searchable as a background thread indexes them.
  */
 public class LibrarySystemInteractiveCLI {
 
     // ===== Data / Services =====
-    private final List<Book> catalog = new ArrayList<>();
-    private final InMemoryLoanRepository loanRepo = new InMemoryLoanRepository();
-    private final InMemoryFineRepository fineRepo = new InMemoryFineRepository();
+    private static final int INDEX_CHUNK = 65_536;
+
+    private final BookRepository bookRepo;
+    private final CatalogIndex catalogIndex = new CatalogIndex();
+    private final Autocomplete autocomplete = new Autocomplete();
+    private final LoanRepository loanRepo;
+    private final FineRepository fineRepo;
+    private final EventRing events = new EventRing();
+    private final EventCounts eventCounts = new EventCounts();
 
     private final AuthService authService = new AuthService();
-    private final CatalogService catalogService = new CatalogService();
+    private final CatalogService catalogService;
+    private volatile boolean indexing; // books of the mapped snapshot not all searchable yet
     private BorrowingService borrowingService;   // depends on clock
     private OverdueService overdueService;       // depends on clock
-    private final FineService fineService = new FineService(fineRepo);
+    private volatile FineAccrualService fineAccrualService; // depends on clock; the accrual sweep reads it
+    private final FineService fineService;
+
+    // Background sweeps; their notices wait here for 'sched'
+    private final Path sweepCheckpoints;
+    private SweepScheduler scheduler;
+    private final Queue<String> notices = new ConcurrentLinkedQueue<>();
 
     // Admin + one demo user for Sprint 2
     private final Admin admin = new Admin("admin", "1234");
     private final User user = new User("U1", "Aseel");
 
-    // Clock management (so you can change "today")
-    private Clock clock = Clock.systemDefaultZone();
+    // Paged search state for 'more'
+    private static final int PAGE = 10;
+    private String lastQuery;
+    private boolean lastFuzzy;
+    private int nextOffset;
+
+    // Clock management (so you can change "today"); read by the sweep thread too
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    public LibrarySystemInteractiveCLI() throws IOException { this(null, null); }
+
+    /**
+     * @param dataDir where loans, fines and sweep checkpoints are kept; null for memory only
+     * @param catalog catalog snapshot to map; null for an empty in-memory catalog
+     */
+    public LibrarySystemInteractiveCLI(Path dataDir, Path catalog) throws IOException {
+        this.bookRepo = catalog == null ? new InMemoryBookRepository() : MappedCatalog.open(catalog);
+        this.catalogService = new CatalogService(bookRepo, catalogIndex, autocomplete);
+        this.indexing = catalog != null;
+        seedSamples(); // before recovery, so recovered loans attach to these books
+        if (dataDir == null) {
+            this.loanRepo = new InMemoryLoanRepository();
+            this.fineRepo = new InMemoryFineRepository();
+            this.sweepCheckpoints = null;
+        } else {
+            this.loanRepo = new DurableLoanRepository(dataDir.resolve("loans"), bookRepo,
+                    id -> id.equals(user.getId()) ? user : null);
+            this.fineRepo = new DurableFineRepository(dataDir.resolve("fines"));
+            this.sweepCheckpoints = dataDir.resolve("sweeps");
+        }
+        this.fineService = new FineService(fineRepo, events);
+    }
 
     // ======= Entry =======
-    public static void main(String[] args) {
-        new LibrarySystemInteractiveCLI().run();
+    public static void main(String[] args) throws IOException {
+        Path dataDir = null, catalog = null;
+        for (int i = 0; i < args.length; i += 2) {
+            switch (i + 1 < args.length ? args[i] : "") {
+                case "--data" -> dataDir = Path.of(args[i + 1]);
+                case "--catalog" -> catalog = Path.of(args[i + 1]);
+                default -> { System.out.println("usage: [--data <dir>] [--catalog <snapshot>]"); return; }
+            }
+        }
+        new LibrarySystemInteractiveCLI(dataDir, catalog).run();
     }
 
-    private void run() {
+    private void run() throws IOException {
+        events.addHandler("counts", eventCounts);
+        events.start();
         updateClock(clock); // init services with system clock
+        loanRepo.stream().forEach(l -> autocomplete.recordLoan(l.getBook())); // rank suggestions by past loans
+        startSweeps();
+        if (bookRepo instanceof MappedCatalog mapped) indexInBackground(mapped);
 
         System.out.println("===== Library System — Interactive CLI (Sprint 1 & 2) =====");
         System.out.println("type 'help' to see commands.\n");
 
-        // a couple of sample books (optional)
-        catalog.add(new Book("Clean Code", "Robert C. Martin", "9780132350884"));
-        catalog.add(new Book("Engineering Math", "Mike Brown", "ISBN-1"));
-
         Scanner sc = new Scanner(System.in);
         while (true) {
             System.out.print("> ");
@@ -80,15 +161,25 @@ public class LibrarySystemInteractiveCLI {
                     case "logout" -> doLogout();
                     case "add" -> doAdd(arg);
                     case "search" -> doSearch(arg);
+                    case "fuzzy" -> doFuzzy(arg);
+                    case "more" -> doMore();
+                    case "suggest" -> doSuggest(arg);
+                    case "cache" -> doCache();
+                    case "events" -> doEvents();
                     case "list" -> doList();
                     case "borrow" -> doBorrow(arg);
                     case "return" -> doReturn(arg);
                     case "loans" -> doLoans();
                     case "overdue" -> doOverdue();
+                    case "accrue" -> doAccrue();
+                    case "sched" -> doSched(arg);
                     case "balance" -> doBalance();
                     case "pay" -> doPay(arg);
                     case "date" -> doDate(arg);
-                    case "exit", "quit" -> { System.out.println("bye!"); return; }
+                    case "import" -> doImport(arg);
+                    case "export" -> doExport(arg);
+                    case "snapshot" -> doSnapshot(arg);
+                    case "exit", "quit" -> { shutdown(); System.out.println("bye!"); return; }
                     default -> System.out.println("Unknown command. type 'help'.");
                 }
             } catch (Exception ex) {
@@ -107,15 +198,27 @@ public class LibrarySystemInteractiveCLI {
                   logout                       - Admin logout
                   add Title|Author|ISBN        - Add a book (admin must be logged in)
                   list                         - List all books
-                  search <query>               - Search by title/author/isbn
-                  borrow <isbn>                - Borrow ISBN for user 'Aseel'
-                  return <isbn>                - Return ISBN for user 'Aseel'
+                  search <query>               - Search by title/author/isbn, best matches first
+                  fuzzy <query>                - Search allowing typos (1 edit from 4 chars, 2 from 7)
+                  more                         - Next page of the last search
+                  suggest <prefix>             - Complete a title/author, most borrowed first
+                  cache                        - Search cache hit/miss/eviction counters
+                  events                       - Loan and fine events published this session
+                  borrow <isbn> [isbn ...]     - Borrow for user 'Aseel'; several ISBNs are all or nothing
+                  return <isbn> [isbn ...]     - Return for user 'Aseel'; several ISBNs are all or nothing
                   loans                        - Show current loans
                   overdue                      - List overdue loans (based on 'today')
+                  accrue                       - Charge overdue fines through 'today' (1 NIS/day, max 50 a loan); safe to repeat
+                  sched [pause|resume|run] [s] - Background sweeps (overdue, accrual, reminders): status and notices,
+                                                 or pause/resume one sweep or all, or run one now
                   balance                      - Show fine balance for 'Aseel'
                   pay <amount>                 - Pay part/all fine (e.g., pay 10)
                   date show                    - Show current 'today' used by services
                   date set YYYY-MM-DD          - Change 'today' (useful to simulate overdue)
+                  import <file>                - Bulk-add books from a .csv or Title|Author|ISBN file (admin)
+                  export loans <file> [from YYYY-MM-DD] [to YYYY-MM-DD] [open|returned]
+                                               - Export loans borrowed in a date range (.bin = binary, else CSV)
+                  snapshot <file>              - Write the catalog to a binary snapshot file (start with --catalog <file> to map it)
                   exit                         - quit
                 """);
     }
@@ -138,21 +241,70 @@ public class LibrarySystemInteractiveCLI {
         String[] p = arg.split("\\|");
         if (p.length != 3) { System.out.println("usage: add Title|Author|ISBN"); return; }
         Book b = new Book(p[0].trim(), p[1].trim(), p[2].trim());
-        catalogService.addBook(admin, catalog, b);
+        if (!catalogService.addBook(admin, b)) { System.out.println("❌ ISBN already in catalog: " + b.getIsbn()); return; }
         System.out.println("✅ added: " + b.getTitle());
     }
 
     private void doSearch(String arg) {
         String q = arg.trim();
         if (q.isEmpty()) { System.out.println("usage: search <query>"); return; }
-        var res = catalog.stream().filter(b -> b.matches(q)).toList();
-        if (res.isEmpty()) { System.out.println("(no matches)"); return; }
-        res.forEach(b -> System.out.printf(" - %s — %s (ISBN: %s)%n", b.getTitle(), b.getAuthor(), b.getIsbn()));
+        lastQuery = q;
+        lastFuzzy = false;
+        nextOffset = 0;
+        showPage();
+    }
+
+    private void doFuzzy(String arg) {
+        String q = arg.trim();
+        if (q.isEmpty()) { System.out.println("usage: fuzzy <query>"); return; }
+        lastQuery = q;
+        lastFuzzy = true;
+        nextOffset = 0;
+        showPage();
+    }
+
+    private void doMore() {
+        if (lastQuery == null) { System.out.println("usage: search <query> first"); return; }
+        showPage();
+    }
+
+    private void showPage() {
+        var page = lastFuzzy ? catalogService.fuzzySearch(lastQuery, nextOffset, PAGE)
+                : catalogService.search(lastQuery, nextOffset, PAGE);
+        if (indexing) System.out.println("   (still indexing the catalog snapshot, so some books are missing; see 'sched')");
+        if (page.total() == 0) { System.out.println("(no matches)"); return; }
+        if (page.books().isEmpty()) { System.out.println("(no more matches)"); return; }
+        page.books().forEach(b -> System.out.printf(" - %s — %s (ISBN: %s)%n", b.getTitle(), b.getAuthor(), b.getIsbn()));
+        nextOffset += page.books().size();
+        System.out.printf("   %d-%d of %d%s%n", page.offset() + 1, nextOffset, page.total(),
+                page.hasMore() ? " — type 'more' for the next page" : "");
+    }
+
+    private void doSuggest(String arg) {
+        if (arg.isBlank()) { System.out.println("usage: suggest <prefix>"); return; }
+        var res = catalogService.suggest(arg.trim(), Autocomplete.DEFAULT_KEEP);
+        if (res.isEmpty()) { System.out.println("(no suggestions)"); return; }
+        res.forEach(s -> System.out.printf(" - %s (%s, %d loans)%n", s.text(),
+                s.kind().name().toLowerCase(Locale.ROOT), s.circulation()));
+    }
+
+    private void doCache() {
+        var s = catalogService.cacheStats();
+        System.out.printf("pages: %d  hits: %d  misses: %d  hit rate: %.1f%%  evictions: %d  invalidated: %d%n",
+                s.size(), s.hits(), s.misses(), 100 * s.hitRate(), s.evictions(), s.invalidations());
+    }
+
+    private void doEvents() {
+        for (LoanEvent.Type t : LoanEvent.Type.values()) {
+            long agorot = eventCounts.agorot(t);
+            System.out.printf(" - %-14s %d%s%n", t, eventCounts.count(t),
+                    agorot > 0 ? String.format("  (%.2f NIS)", agorot / 100.0) : "");
+        }
     }
 
     private void doList() {
-        if (catalog.isEmpty()) { System.out.println("(empty catalog)"); return; }
-        for (Book b : catalog) {
+        if (bookRepo.count() == 0) { System.out.println("(empty catalog)"); return; }
+        for (Book b : bookRepo.findAll()) {
             System.out.printf(" - %-30s | %-18s | %-12s | %s%n",
                     b.getTitle(), b.getAuthor(), b.getIsbn(), b.isAvailable() ? "AVAILABLE" : "BORROWED");
         }
@@ -160,35 +312,61 @@ public class LibrarySystemInteractiveCLI {
 
     // Sprint 2
     private void doBorrow(String arg) {
-        String isbn = arg.trim();
-        if (isbn.isEmpty()) { System.out.println("usage: borrow <isbn>"); return; }
-        Book b = findByIsbn(isbn);
-        if (b == null) { System.out.println("❌ book not found: " + isbn); return; }
-        Loan l = borrowingService.borrow(user, b);
-        System.out.println("✅ borrowed on " + l.getBorrowDate() + ", due " + l.getDueDate());
+        String[] isbns = arg.trim().split("\\s+");
+        if (isbns[0].isEmpty()) { System.out.println("usage: borrow <isbn> [isbn ...]"); return; }
+        List<Book> books = findAll(isbns);
+        if (books == null) return;
+        if (books.size() == 1) {
+            Loan l = borrowingService.borrow(user, books.get(0));
+            System.out.println("✅ borrowed on " + l.getBorrowDate() + ", due " + l.getDueDate());
+            return;
+        }
+        printBatch(borrowingService.borrowAll(user, books), "borrowed");
     }
 
     private void doReturn(String arg) {
-        String isbn = arg.trim();
-        if (isbn.isEmpty()) { System.out.println("usage: return <isbn>"); return; }
-        Book b = findByIsbn(isbn);
-        if (b == null) { System.out.println("❌ book not found: " + isbn); return; }
-        borrowingService.returnBook(user, b);
-        System.out.println("✅ returned.");
+        String[] isbns = arg.trim().split("\\s+");
+        if (isbns[0].isEmpty()) { System.out.println("usage: return <isbn> [isbn ...]"); return; }
+        List<Book> books = findAll(isbns);
+        if (books == null) return;
+        if (books.size() == 1) {
+            borrowingService.returnBook(user, books.get(0));
+            System.out.println("✅ returned.");
+            return;
+        }
+        printBatch(borrowingService.returnAll(user, books), "returned");
+    }
+
+    /** The books with these ISBNs, or null after reporting the first unknown one. */
+    private List<Book> findAll(String[] isbns) {
+        List<Book> books = new ArrayList<>(isbns.length);
+        for (String isbn : isbns) {
+            Book b = findByIsbn(isbn);
+            if (b == null) { System.out.println("❌ book not found: " + isbn); return null; }
+            books.add(b);
+        }
+        return books;
+    }
+
+    private void printBatch(BorrowingService.BatchResult res, String verb) {
+        if (res.applied()) { System.out.println("✅ " + verb + " " + res.items().size() + " books."); return; }
+        System.out.println("❌ nothing " + verb + ":");
+        res.failures().forEach(i -> System.out.println("   " + i.book().getIsbn() + ": " + i.reason()));
     }
 
     private void doLoans() {
-        var all = loanRepo.findAll();
-        if (all.isEmpty()) { System.out.println("(no loans)"); return; }
-        for (Loan l : all) {
+        boolean[] any = {false};
+        loanRepo.stream().forEach(l -> {
+            any[0] = true;
             System.out.printf(" - %s | user=%s | borrowed=%s | due=%s | returned=%s%n",
                     l.getBook().getIsbn(), l.getUser().getName(),
                     l.getBorrowDate(), l.getDueDate(), l.isReturned());
-        }
+        });
+        if (!any[0]) System.out.println("(no loans)");
     }
 
     private void doOverdue() {
-        var ods = overdueService.findOverdues(loanRepo.findAll());
+        var ods = overdueService.findOverdues();
         if (ods.isEmpty()) { System.out.println("(no overdue loans)"); return; }
         for (Loan l : ods) {
             long days = Duration.between(l.getDueDate().atStartOfDay(ZoneId.systemDefault()).toInstant(),
@@ -197,6 +375,36 @@ public class LibrarySystemInteractiveCLI {
         }
     }
 
+    private void doAccrue() {
+        var run = fineAccrualService.accrue();
+        System.out.printf("%s: %d overdue, %d charged, %.2f NIS%n", run.day(), run.overdue(), run.charged(), run.agorot() / 100.0);
+    }
+
+    private void doSched(String arg) {
+        String[] p = arg.isBlank() ? new String[0] : arg.trim().split("\\s+");
+        if (p.length > 0) {
+            String name = p.length > 1 ? p[1] : null;
+            switch (p[0]) {
+                case "pause" -> { if (name == null) scheduler.pauseAll(); else scheduler.pause(name); }
+                case "resume" -> { if (name == null) scheduler.resumeAll(); else scheduler.resume(name); }
+                case "run" -> {
+                    if (name == null) { System.out.println("usage: sched run <sweep>"); return; }
+                    scheduler.runNow(name);
+                }
+                default -> { System.out.println("usage: sched [pause|resume [sweep] | run <sweep>]"); return; }
+            }
+            System.out.println("✅ " + p[0] + (name == null ? "" : " " + name));
+            return;
+        }
+        for (var s : scheduler.status()) {
+            LocalDate upTo = s.checkpoint().position() == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(s.checkpoint().position());
+            System.out.printf(" - %-9s %-7s runs: %d  loans: %d  through: %s%s%s%n", s.name(),
+                    s.paused() ? "paused" : "active", s.runs(), s.processed(), upTo == null ? "-" : upTo,
+                    s.caughtUp() ? "" : "  (catching up)", s.lastError() == null ? "" : "  error: " + s.lastError());
+        }
+        for (String n; (n = notices.poll()) != null; ) System.out.println("   " + n);
+    }
+
     private void doBalance() {
         System.out.println("Balance = " + fineService.balance(user) + " NIS");
     }
@@ -234,15 +442,115 @@ public class LibrarySystemInteractiveCLI {
         System.out.println("usage: date show | date set YYYY-MM-DD");
     }
 
+    private void doImport(String arg) throws IOException {
+        if (!admin.isLoggedIn()) { System.out.println("⚠️ please login as admin first."); return; }
+        if (arg.isBlank()) { System.out.println("usage: import <file>"); return; }
+        var res = new CatalogImportService(catalogService).importFile(admin, Path.of(arg.trim()),
+                p -> System.out.printf("\r  %,d records, %,d added, %,d duplicates, %,d rejected",
+                        p.records(), p.imported(), p.duplicates(), p.rejected()));
+        System.out.println();
+        res.rejects().stream().limit(10).forEach(r -> System.out.printf("  ❌ line %d: %s%n", r.line(), r.reason()));
+        if (res.rejected() > 10) System.out.println("  ... " + (res.rejected() - 10) + " more rejects");
+        System.out.println("✅ imported " + res.imported() + " books");
+    }
+
+    private void doExport(String arg) throws IOException {
+        String[] p = arg.trim().split("\\s+");
+        String usage = "usage: export loans <file> [from YYYY-MM-DD] [to YYYY-MM-DD] [open|returned]";
+        if (p.length < 2 || !p[0].equals("loans")) { System.out.println(usage); return; }
+        LocalDate from = null, to = null;
+        var status = LoanExportService.Status.ALL;
+        for (int i = 2; i < p.length; i++) {
+            switch (p[i]) {
+                case "open" -> status = LoanExportService.Status.OPEN;
+                case "returned" -> status = LoanExportService.Status.RETURNED;
+                case "from", "to" -> {
+                    boolean isFrom = p[i].equals("from");
+                    if (i + 1 == p.length || (isFrom ? from : to) != null) { System.out.println(usage); return; }
+                    LocalDate d = LocalDate.parse(p[++i], DateTimeFormatter.ISO_LOCAL_DATE);
+                    if (isFrom) from = d; else to = d;
+                }
+                default -> { System.out.println(usage); return; }
+            }
+        }
+        long n = new LoanExportService(loanRepo).export(Path.of(p[1]), new LoanExportService.Filter(from, to, status));
+        System.out.println("✅ exported " + n + " loans to " + p[1]);
+    }
+
+    private void doSnapshot(String arg) throws IOException {
+        if (arg.isBlank()) { System.out.println("usage: snapshot <file>"); return; }
+        long n = CatalogSnapshot.write(Path.of(arg.trim()), bookRepo.findAll());
+        System.out.println("✅ wrote " + n + " books to " + arg.trim());
+    }
+
     // ===== Helpers =====
+    /** Stop the sweeps, then the event handlers, then close the stores they write to. */
+    private void shutdown() throws IOException {
+        scheduler.close();
+        events.close();
+        if (loanRepo instanceof Closeable c) c.close();
+        if (fineRepo instanceof Closeable c) c.close();
+    }
+
+    private void startSweeps() throws IOException {
+        scheduler = sweepCheckpoints == null ? new SweepScheduler(() -> LocalDate.now(clock))
+                : new SweepScheduler(() -> LocalDate.now(clock), sweepCheckpoints);
+        scheduler.schedule(DueDateSweep.overdue(loanRepo,
+                        l -> notices.add("overdue: " + l.getBook().getIsbn() + " was due " + l.getDueDate())),
+                Duration.ofMinutes(1), Duration.ofSeconds(10), Duration.ofMillis(200));
+        scheduler.schedule(DueDateSweep.accrual(loanRepo, () -> fineAccrualService),
+                Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofMillis(500));
+        scheduler.schedule(DueDateSweep.reminders(loanRepo, 2,
+                        l -> notices.add("reminder: " + l.getBook().getIsbn() + " is due " + l.getDueDate())),
+                Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofMillis(200));
+    }
+
+    /** Make the snapshot's books searchable a chunk at a time, while the CLI already serves them by ISBN. */
+    private void indexInBackground(MappedCatalog mapped) {
+        Thread t = new Thread(() -> {
+            long start = System.nanoTime();
+            List<Book> chunk = new ArrayList<>(INDEX_CHUNK);
+            // the mapped books come first; samples saved after them are indexed already
+            mapped.stream().limit(mapped.mappedCount()).forEach(b -> {
+                chunk.add(b);
+                if (chunk.size() == INDEX_CHUNK) {
+                    catalogService.indexAll(List.copyOf(chunk));
+                    chunk.clear();
+                }
+            });
+            catalogService.indexAll(List.copyOf(chunk));
+            indexing = false;
+            notices.add(String.format("catalog: indexed %,d books in %d ms", mapped.mappedCount(),
+                    (System.nanoTime() - start) / 1_000_000));
+        }, "catalog-index");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
     private void updateClock(Clock newClock) {
         this.clock = newClock;
-        this.borrowingService = new BorrowingService(loanRepo, this.clock);
-        this.overdueService = new OverdueService(this.clock);
+        this.borrowingService = new BorrowingService(loanRepo, this.clock,
+                loan -> catalogService.recordLoan(loan.getBook()), loan -> fineAccrualService.settle(loan), events);
+        this.overdueService = new OverdueService(this.clock, loanRepo);
+        this.fineAccrualService = new FineAccrualService(loanRepo, fineRepo, this.clock, FineAccrualService.DEFAULT_POLICY,
+                ForkJoinPool.commonPool(), FineAccrualService.DEFAULT_PARTITION, events);
+    }
+
+    private void seedSamples() {
+        // a couple of sample books (optional)
+        addSample(new Book("Clean Code", "Robert C. Martin", "9780132350884"));
+        addSample(new Book("Engineering Math", "Mike Brown", "ISBN-1"));
+    }
+
+    private void addSample(Book b) {
+        if (bookRepo.saveIfAbsent(b)) {
+            catalogIndex.add(b);
+            autocomplete.add(b);
+        }
     }
 
     private Book findByIsbn(String isbn) {
-        for (Book b : catalog) if (b.getIsbn().equals(isbn)) return b;
-        return null;
+        return bookRepo.findByIsbn(isbn).orElse(null);
     }
 }
@@ -0,0 +1,79 @@
+package com.library.app;
+
+import com.library.domain.model.*;
+import com.library.infrastructure.InMemoryBookRepository;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLibraryServiceTest {
+    private static final Clock FIXED = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC"));
+
+    private static AsyncLibraryService service(int maxConcurrent, Duration timeout) {
+        return new AsyncLibraryService(new BorrowingService(new InMemoryLoanRepository(), FIXED),
+                new FineService(new InMemoryFineRepository()), new CatalogService(new InMemoryBookRepository()),
+                new AuthService(), maxConcurrent, timeout);
+    }
+
+    @Test
+    void racing_borrows_lend_one_copy_and_fail_the_rest_with_the_service_exception() {
+        try (var async = service(1_000, Duration.ofSeconds(10))) {
+            var book = new Book("Eng", "Mike", "ISBN-1");
+            List<CompletableFuture<Loan>> fs = new ArrayList<>();
+            for (int i = 0; i < 500; i++) fs.add(async.borrow(new User("U" + i, "user" + i), book));
+            CompletableFuture.allOf(fs.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+
+            assertEquals(1, fs.stream().filter(f -> !f.isCompletedExceptionally()).count());
+            for (var f : fs) {
+                if (!f.isCompletedExceptionally()) continue;
+                var e = assertThrows(ExecutionException.class, f::get).getCause();
+                assertEquals(IllegalStateException.class, e.getClass());
+                assertEquals("Book not available.", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void no_more_than_max_concurrent_calls_run_at_once() {
+        try (var async = service(3, Duration.ofSeconds(10))) {
+            var running = new AtomicInteger();
+            var peak = new AtomicInteger();
+            List<CompletableFuture<Integer>> fs = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                fs.add(async.call(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+            assertEquals(30, fs.stream().mapToInt(CompletableFuture::join).sum());
+            assertTrue(peak.get() <= 3, "peak " + peak.get());
+        }
+    }
+
+    @Test
+    void slow_calls_time_out_and_queued_calls_past_their_deadline_never_run() throws Exception {
+        try (var async = service(1, Duration.ofMillis(100))) {
+            var release = new CountDownLatch(1);
+            var ran = new AtomicInteger();
+            var slow = async.call(() -> { release.await(); return "late"; });
+            var queued = async.call(() -> ran.incrementAndGet());
+            var e = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+            assertEquals(TimeoutException.class, e.getCause().getClass());
+            e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertEquals(TimeoutException.class, e.getCause().getClass());
+            release.countDown();
+            assertEquals("ok", async.call(() -> "ok", Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS));
+            assertEquals(0, ran.get());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.library.app;
+
+import com.library.domain.model.*;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BorrowingServiceConcurrencyTest {
+    private static final Clock FIXED = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC"));
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Test
+    void one_copy_is_lent_to_exactly_one_of_many_racing_users() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            var repo = new InMemoryLoanRepository();
+            var svc = new BorrowingService(repo, FIXED);
+            var book = new Book("Eng", "Mike", "ISBN-1");
+            var wins = new AtomicInteger();
+            var start = new CountDownLatch(1);
+
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> fs = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    var user = new User("U" + t, "user" + t);
+                    fs.add(pool.submit(() -> {
+                        start.await();
+                        try { svc.borrow(user, book); wins.incrementAndGet(); }
+                        catch (IllegalStateException expected) { assertEquals("Book not available.", expected.getMessage()); }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (var f : fs) f.get();
+            } finally {
+                pool.shutdownNow();
+            }
+            assertEquals(1, wins.get());
+            assertEquals(1, repo.findAll().size());
+            assertEquals(1, repo.findOpen().size());
+            assertFalse(book.isAvailable());
+        }
+    }
+
+    @Test
+    void heavy_borrow_return_churn_keeps_books_users_and_loans_consistent() throws Exception {
+        var repo = new InMemoryLoanRepository();
+        var svc = new BorrowingService(repo, FIXED);
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 32; i++) books.add(new Book("T" + i, "A", "ISBN-" + i));
+        var borrows = new AtomicInteger();
+        var returns = new AtomicInteger();
+        var users = new ArrayList<User>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> fs = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                var user = new User("U" + t, "user" + t);
+                users.add(user);
+                fs.add(pool.submit(() -> {
+                    var rnd = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        var b = books.get(rnd.nextInt(books.size()));
+                        try {
+                            if (user.getBorrowed().contains(b)) { svc.returnBook(user, b); returns.incrementAndGet(); }
+                            else { svc.borrow(user, b); borrows.incrementAndGet(); }
+                        } catch (IllegalStateException busy) {
+                            // lost the race for this copy, try another one
+                        }
+                    }
+                }));
+            }
+            for (var f : fs) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // no lost Loan records
+        assertEquals(borrows.get(), repo.findAll().size());
+        assertEquals(borrows.get() - returns.get(), repo.findOpen().size());
+
+        // no double loans: every borrowed copy has exactly one open loan and one holder
+        for (var b : books) {
+            long open = repo.findByBook(b).stream().filter(l -> !l.isReturned()).count();
+            long holders = users.stream().filter(u -> u.getBorrowed().contains(b)).count();
+            assertEquals(b.isAvailable() ? 0 : 1, open, b.getIsbn());
+            assertEquals(open, holders, b.getIsbn());
+        }
+        for (var u : users) {
+            for (var b : u.getBorrowed()) assertTrue(repo.findOpenLoan(u, b).isPresent());
+        }
+    }
+}
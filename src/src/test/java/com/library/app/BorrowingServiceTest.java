@@ -4,7 +4,10 @@ import com.library.domain.model.*;
 import com.library.infrastructure.InMemoryLoanRepository;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.*;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,4 +42,102 @@ class BorrowingServiceTest {
         assertFalse(u.hasBorrowed("ISBN-1"));
         assertTrue(repo.findAll().get(0).isReturned());
     }
+
+    @Test
+    void failed_save_or_close_leaves_book_and_user_as_they_were() {
+        Clock fixed = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC"));
+        boolean[] fail = {true};
+        var repo = new InMemoryLoanRepository() {
+            @Override public void save(Loan loan) {
+                if (fail[0]) throw new UncheckedIOException(new IOException("disk full"));
+                super.save(loan);
+            }
+            @Override public void markReturned(Loan loan) {
+                if (fail[0]) throw new UncheckedIOException(new IOException("disk full"));
+                super.markReturned(loan);
+            }
+        };
+        var svc = new BorrowingService(repo, fixed);
+        var u = new User("U1","Aseel");
+        var b = new Book("Eng","Mike","ISBN-1");
+
+        assertThrows(UncheckedIOException.class, () -> svc.borrow(u, b));
+        assertTrue(b.isAvailable());
+        assertFalse(u.hasBorrowed("ISBN-1"));
+
+        fail[0] = false;
+        svc.borrow(u, b);
+        fail[0] = true;
+        assertThrows(UncheckedIOException.class, () -> svc.returnBook(u, b));
+        assertFalse(b.isAvailable());
+        assertTrue(u.hasBorrowed("ISBN-1"));
+        assertFalse(repo.findAll().get(0).isReturned());
+
+        fail[0] = false;
+        svc.returnBook(u, b);
+        assertTrue(b.isAvailable());
+    }
+
+    @Test
+    void borrowAll_lends_every_book_or_none_and_reports_each_item() {
+        var repo = new InMemoryLoanRepository();
+        var svc = new BorrowingService(repo, Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC")));
+        var u = new User("U1", "Aseel");
+        var other = new User("U2", "Maram");
+        var b1 = new Book("A", "x", "1");
+        var b2 = new Book("B", "x", "2");
+        var b3 = new Book("C", "x", "3");
+        svc.borrow(other, b2);
+
+        var rejected = svc.borrowAll(u, List.of(b1, b2, b3, b1));
+        assertFalse(rejected.applied());
+        assertEquals(List.of(BorrowingService.Status.SKIPPED, BorrowingService.Status.FAILED,
+                BorrowingService.Status.SKIPPED, BorrowingService.Status.FAILED),
+                rejected.items().stream().map(BorrowingService.ItemResult::status).toList());
+        assertEquals("Book listed twice.", rejected.items().get(3).reason());
+        assertTrue(b1.isAvailable() && b3.isAvailable());
+        assertEquals(0, u.countBorrowed());
+        assertEquals(1, repo.findAll().size());
+
+        var unavailable = svc.borrowAll(u, List.of(b1, b2, b3));
+        assertFalse(unavailable.applied());
+        assertEquals("Book not available.", unavailable.failures().get(0).reason());
+        assertTrue(b1.isAvailable() && b3.isAvailable()); // claims rolled back
+
+        var done = svc.borrowAll(u, List.of(b1, b3));
+        assertTrue(done.applied());
+        assertEquals(LocalDate.of(2025, 1, 29), done.items().get(1).loan().getDueDate());
+        assertFalse(b1.isAvailable() || b3.isAvailable());
+        assertEquals(List.of(b1, b3), u.getBorrowed());
+        assertEquals(3, repo.findOpen().size());
+    }
+
+    @Test
+    void returnAll_takes_back_all_or_nothing_and_book_drop_finds_each_borrower() {
+        var repo = new InMemoryLoanRepository();
+        var svc = new BorrowingService(repo, Clock.systemUTC());
+        var u1 = new User("U1", "Aseel");
+        var u2 = new User("U2", "Maram");
+        var b1 = new Book("A", "x", "1");
+        var b2 = new Book("B", "x", "2");
+        var b3 = new Book("C", "x", "3");
+        svc.borrowAll(u1, List.of(b1, b2));
+        svc.borrow(u2, b3);
+
+        var wrongUser = svc.returnAll(u1, List.of(b1, b3));
+        assertFalse(wrongUser.applied());
+        assertEquals("User doesn't have this book.", wrongUser.failures().get(0).reason());
+        assertFalse(b1.isAvailable());
+        assertEquals(3, repo.findOpen().size());
+
+        var notOnLoan = new Book("D", "x", "4");
+        assertFalse(svc.returnAll(List.of(b1, notOnLoan)).applied());
+
+        var drop = svc.returnAll(List.of(b3, b1, b2));
+        assertTrue(drop.applied());
+        assertTrue(b1.isAvailable() && b2.isAvailable() && b3.isAvailable());
+        assertEquals(0, u1.countBorrowed() + u2.countBorrowed());
+        assertTrue(repo.findOpen().isEmpty());
+        assertSame(u2, drop.items().get(0).loan().getUser());
+    }
 }
@@ -0,0 +1,96 @@
+package com.library.app;
+
+import com.library.domain.model.Admin;
+import com.library.infrastructure.InMemoryBookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogImportServiceTest {
+    private final InMemoryBookRepository repo = new InMemoryBookRepository();
+    private final CatalogService catalog = new CatalogService(repo);
+    private final Admin admin = loggedIn();
+
+    @Test
+    void csv_import_handles_quotes_header_duplicates_and_rejects() throws Exception {
+        String csv = """
+                title,author,isbn
+                Clean Code,Robert C. Martin,9780132350884
+                "Refactoring, 2nd ed","Fowler",9780134757599
+                "He said ""hi""
+                twice",Someone,111
+                missing,fields
+                Clean Code again,Someone else,9780132350884
+                ,No Title,222
+                """;
+        var res = new CatalogImportService(catalog, 2, 2).importFrom(admin, new StringReader(csv),
+                CatalogImportService.Format.CSV, null);
+
+        assertEquals(6, res.records());
+        assertEquals(3, res.imported());
+        assertEquals(1, res.duplicates());
+        assertEquals(2, res.rejected());
+        assertEquals(List.of(6L, 8L), res.rejects().stream().map(CatalogImportService.Reject::line).toList());
+        assertEquals("Refactoring, 2nd ed", repo.findByIsbn("9780134757599").orElseThrow().getTitle());
+        assertEquals("He said \"hi\"\ntwice", repo.findByIsbn("111").orElseThrow().getTitle());
+        assertEquals("Robert C. Martin", repo.findByIsbn("9780132350884").orElseThrow().getAuthor());
+        assertEquals(1, catalog.search("refactoring").size());
+    }
+
+    @Test
+    void unterminated_quote_rejects_its_line_and_keeps_the_rest_of_the_file() throws Exception {
+        var csv = new StringBuilder("Good,Author,1\n\"Bad,Author,2\n");
+        for (int i = 3; i <= 40_000; i++) csv.append("Title ").append(i).append(",Author,").append(i).append('\n');
+        csv.append("\"Also bad,Author,x\nLast,Author,last\n");
+        var res = new CatalogImportService(catalog, 2, 1_000).importFrom(admin, new StringReader(csv.toString()),
+                CatalogImportService.Format.CSV, null);
+
+        assertEquals(2, res.rejected());
+        assertEquals(List.of(2L, 40_001L), res.rejects().stream().map(CatalogImportService.Reject::line).toList());
+        assertEquals("unterminated quote", res.rejects().get(0).reason());
+        assertEquals(40_000, res.imported());
+        assertEquals("Title 3", repo.findByIsbn("3").orElseThrow().getTitle());
+        assertTrue(repo.findByIsbn("last").isPresent());
+    }
+
+    @Test
+    void large_pipe_file_is_inserted_in_file_order_with_progress() throws Exception {
+        var file = Files.createTempDirectory("import").resolve("feed.txt");
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < 50_000; i++) lines.add("Title " + i + "|Author " + (i % 100) + "|ISBN-" + i);
+        lines.add("bad line");
+        Files.write(file, lines);
+
+        var reports = new ArrayList<CatalogImportService.Progress>();
+        var res = new CatalogImportService(catalog, 4, 1_000).importFile(admin, file, reports::add);
+
+        assertEquals(50_000, res.imported());
+        assertEquals(1, res.rejected());
+        assertEquals(50_001, res.rejects().get(0).line());
+        assertEquals(51, reports.size());
+        assertEquals(50_001, reports.get(reports.size() - 1).records());
+        var all = repo.findAll();
+        for (int i = 0; i < all.size(); i++) assertEquals("ISBN-" + i, all.get(i).getIsbn());
+        assertEquals(List.of(repo.findByIsbn("ISBN-49999").orElseThrow()), catalog.search("title 49999"));
+        assertSame(all.get(0).getAuthor(), all.get(100).getAuthor()); // authors are shared, not copied
+    }
+
+    @Test
+    void import_requires_logged_in_admin() {
+        var ex = assertThrows(IllegalStateException.class, () -> new CatalogImportService(catalog)
+                .importFrom(new Admin("a", "b"), new StringReader("x|y|z"), CatalogImportService.Format.PIPE, null));
+        assertEquals("Admin must be logged in.", ex.getMessage());
+        assertEquals(0, repo.count());
+    }
+
+    private static Admin loggedIn() {
+        var a = new Admin("admin", "1234");
+        new AuthService().login(a, "admin", "1234");
+        return a;
+    }
+}
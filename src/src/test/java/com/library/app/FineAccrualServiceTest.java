@@ -0,0 +1,119 @@
+package com.library.app;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FineAccrualServiceTest {
+    private static final LocalDate BORROWED = LocalDate.of(2025, 1, 1);
+    private static final LocalDate DUE = BORROWED.plusDays(28);
+
+    private static Clock on(LocalDate day) { return Clock.fixed(day.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC); }
+
+    @Test
+    void charges_each_overdue_day_once_up_to_the_cap() {
+        var loans = new InMemoryLoanRepository();
+        var fines = new InMemoryFineRepository();
+        var u = new User("U1", "Aseel");
+        var late = new Loan(u, new Book("A", "X", "ISBN-A"), BORROWED, DUE);
+        var onTime = new Loan(u, new Book("B", "Y", "ISBN-B"), BORROWED, DUE.plusDays(10));
+        var returned = new Loan(u, new Book("C", "Z", "ISBN-C"), BORROWED, DUE);
+        loans.save(late);
+        loans.save(onTime);
+        loans.save(returned);
+        returned.markReturned();
+        var policy = new FineAccrualService.Policy(100, 1_000);
+
+        var run = new FineAccrualService(loans, fines, on(DUE.plusDays(3)), policy).accrue();
+        assertEquals(new FineAccrualService.Run(DUE.plusDays(3), 1, 1, 300), run);
+        // the same day again, and an earlier day, charge nothing
+        assertEquals(0, new FineAccrualService(loans, fines, on(DUE.plusDays(3)), policy).accrue().charged());
+        assertEquals(0, new FineAccrualService(loans, fines, on(DUE.plusDays(1)), policy).accrue().agorot());
+        assertEquals(300, fines.balance(u));
+
+        // a missed day is caught up, then the cap stops the charges
+        assertEquals(200, new FineAccrualService(loans, fines, on(DUE.plusDays(5)), policy).accrue().agorot());
+        assertEquals(DUE.plusDays(5).toEpochDay(), late.getFinedThrough());
+        var capped = new FineAccrualService(loans, fines, on(DUE.plusDays(30)), policy).accrue();
+        assertEquals(2, capped.overdue());
+        assertEquals(500 + 1_000, capped.agorot()); // A reaches the cap, B is 20 days late
+        assertEquals(0, new FineAccrualService(loans, fines, on(DUE.plusDays(40)), policy).accrue().agorot());
+        assertEquals(2_000, fines.balance(u));
+
+        assertEquals(0, policy.owed(0));
+        assertEquals(1_000, policy.owed(Long.MAX_VALUE));
+        assertEquals(0, new FineAccrualService.Policy(0, 1_000).owed(5));
+        assertThrows(IllegalArgumentException.class, () -> new FineAccrualService.Policy(-1, 10));
+    }
+
+    @Test
+    void returning_a_loan_settles_the_days_since_the_last_run_once() {
+        var loans = new InMemoryLoanRepository();
+        var fines = new InMemoryFineRepository();
+        var u = new User("U1", "Aseel");
+        var book = new Book("A", "X", "ISBN-A");
+        var policy = new FineAccrualService.Policy(100, 1_000);
+        new BorrowingService(loans, on(BORROWED)).borrow(u, book);
+        new FineAccrualService(loans, fines, on(DUE.plusDays(2)), policy).accrue();
+        assertEquals(200, fines.balance(u));
+
+        // returned three days after that run, before the next one
+        var accrual = new FineAccrualService(loans, fines, on(DUE.plusDays(5)), policy);
+        new BorrowingService(loans, on(DUE.plusDays(5)), loan -> {}, accrual::settle, null).returnBook(u, book);
+        assertEquals(500, fines.balance(u));
+        // a run or a second settle that day charges nothing more
+        assertEquals(0, accrual.accrue().charged());
+        assertEquals(0, accrual.settle(loans.findByUser(u).get(0)).charged());
+        assertEquals(500, fines.balance(u));
+    }
+
+    @Test
+    void parallel_partitions_and_concurrent_runs_never_double_charge() throws Exception {
+        var loans = new InMemoryLoanRepository();
+        var fines = new InMemoryFineRepository();
+        var users = new ArrayList<User>();
+        for (int i = 0; i < 50; i++) users.add(new User("U" + i, "User " + i));
+        for (int i = 0; i < 20_000; i++) {
+            loans.save(new Loan(users.get(i % 50), new Book("T" + i, "A", "ISBN-" + i), BORROWED, DUE.minusDays(i % 7)));
+        }
+        // 3 to 9 days late, 1 NIS a day
+        long expected = 0;
+        for (int i = 0; i < 20_000; i++) expected += 100L * (3 + i % 7);
+
+        var pool = new ForkJoinPool(4);
+        var runners = Executors.newFixedThreadPool(3);
+        try {
+            var engine = new FineAccrualService(loans, fines, on(DUE.plusDays(3)), FineAccrualService.DEFAULT_POLICY,
+                    pool, 512, null);
+            List<Future<FineAccrualService.Run>> runs = new ArrayList<>();
+            for (int r = 0; r < 3; r++) runs.add(runners.submit(() -> engine.accrue()));
+            long charged = 0, agorot = 0;
+            for (var f : runs) {
+                charged += f.get().charged();
+                agorot += f.get().agorot();
+            }
+            assertEquals(20_000, charged);
+            assertEquals(expected, agorot);
+        } finally {
+            runners.shutdown();
+            pool.shutdown();
+        }
+        long total = 0;
+        for (User u : users) total += fines.balance(u);
+        assertEquals(expected, total);
+    }
+}
@@ -4,6 +4,13 @@ import com.library.domain.model.User;
 import com.library.infrastructure.InMemoryFineRepository;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FineServiceTest {
@@ -22,5 +29,39 @@ class FineServiceTest {
         svc.pay(u, 25);
         assertEquals(0.0, svc.balance(u), 0.0001);
     }
-}
 
+    @Test
+    void many_small_postings_do_not_drift() {
+        var svc = new FineService(new InMemoryFineRepository());
+        var u = new User("U1","Aseel");
+        for (int i = 0; i < 1_000_000; i++) svc.addFine(u, 0.1);
+        assertEquals(10_000_000L, svc.balanceAgorot(u));
+        assertEquals(100_000.0, svc.balance(u));
+    }
+
+    @Test
+    void concurrent_fines_and_payments_never_lose_money() throws Exception {
+        var svc = new FineService(new InMemoryFineRepository());
+        var u = new User("U1","Aseel");
+        var paid = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> fs = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                boolean payer = t % 2 == 0;
+                fs.add(pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        if (payer) paid.addAndGet(svc.payAgorot(u, 7));
+                        else svc.addFineAgorot(u, 5);
+                    }
+                }));
+            }
+            for (var f : fs) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        long charged = 4L * 50_000 * 5;
+        assertEquals(charged - paid.get(), svc.balanceAgorot(u));
+        assertTrue(svc.balanceAgorot(u) >= 0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.library.app;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanExportServiceTest {
+    private static final LocalDate JAN1 = LocalDate.of(2025, 1, 1);
+
+    private final InMemoryLoanRepository repo = new InMemoryLoanRepository();
+    private final LoanExportService exporter = new LoanExportService(repo);
+
+    @Test
+    void csv_export_quotes_fields_and_applies_filters() throws Exception {
+        var u = new User("U1", "Aseel");
+        repo.save(new Loan(u, new Book("Clean Code", "Martin, Robert", "1"), JAN1, JAN1.plusDays(28)));
+        var returned = new Loan(u, new Book("Say \"hi\"", "A", "2"), JAN1.plusDays(10), JAN1.plusDays(38));
+        repo.save(returned);
+        returned.markReturned();
+        repo.save(new Loan(u, new Book("Late", "B", "3"), JAN1.plusDays(40), JAN1.plusDays(68)));
+
+        var file = Files.createTempDirectory("export").resolve("loans.csv");
+        assertEquals(3, exporter.export(file, LoanExportService.Filter.ALL));
+        assertEquals(List.of(
+                "user_id,user_name,isbn,title,author,borrow_date,due_date,returned",
+                "U1,Aseel,1,Clean Code,\"Martin, Robert\",2025-01-01,2025-01-29,false",
+                "U1,Aseel,2,\"Say \"\"hi\"\"\",A,2025-01-11,2025-02-08,true",
+                "U1,Aseel,3,Late,B,2025-02-10,2025-03-10,false"), Files.readAllLines(file));
+
+        assertEquals(1, exporter.export(file, new LoanExportService.Filter(JAN1, JAN1.plusDays(30), LoanExportService.Status.OPEN)));
+        assertTrue(Files.readAllLines(file).get(1).startsWith("U1,Aseel,1,"));
+        assertEquals(1, exporter.export(file, new LoanExportService.Filter(null, null, LoanExportService.Status.RETURNED)));
+        assertEquals(2, exporter.export(file, new LoanExportService.Filter(JAN1.plusDays(10), null, LoanExportService.Status.ALL)));
+    }
+
+    @Test
+    void failed_export_keeps_the_old_file_and_leaves_no_temporary_file() throws Exception {
+        var u = new User("U1", "Aseel");
+        repo.save(new Loan(u, new Book("Clean Code", "Martin", "1"), JAN1, JAN1.plusDays(28)));
+        var dir = Files.createTempDirectory("export");
+        var file = dir.resolve("loans.csv");
+        exporter.export(file, LoanExportService.Filter.ALL);
+        var old = Files.readAllLines(file);
+
+        repo.save(new Loan(u, new Book("Broken", "B", "2") {
+            @Override public String getTitle() { throw new IllegalStateException("unreadable"); }
+        }, JAN1, JAN1.plusDays(28)));
+        assertThrows(IllegalStateException.class, () -> exporter.export(file, LoanExportService.Filter.ALL));
+        assertEquals(old, Files.readAllLines(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void binary_export_round_trips_many_loans_through_a_small_buffer() throws Exception {
+        var u = new User("U-ü", "Ünïcödé");
+        for (int i = 0; i < 20_000; i++) {
+            var l = new Loan(u, new Book("Title " + i, "Author", "ISBN-" + i), JAN1.plusDays(i % 365), JAN1.plusDays(i % 365 + 28));
+            repo.save(l);
+            if (i % 3 == 0) l.markReturned();
+        }
+        var file = Files.createTempDirectory("export").resolve("loans.bin");
+        assertEquals(20_000, exporter.export(file, LoanExportService.Filter.ALL));
+
+        try (var in = new DataInputStream(Files.newInputStream(file))) {
+            assertEquals(LoanExportService.BINARY_MAGIC, in.readLong());
+            assertEquals(LoanExportService.BINARY_VERSION, in.readInt());
+            in.readInt();
+            assertEquals(20_000, in.readLong());
+            for (int i = 0; i < 20_000; i++) {
+                assertEquals("U-ü", in.readUTF());
+                assertEquals("Ünïcödé", in.readUTF());
+                assertEquals("ISBN-" + i, in.readUTF());
+                assertEquals("Title " + i, in.readUTF());
+                assertEquals("Author", in.readUTF());
+                assertEquals(JAN1.plusDays(i % 365).toEpochDay(), in.readInt());
+                assertEquals(JAN1.plusDays(i % 365 + 28).toEpochDay(), in.readInt());
+                assertEquals(i % 3 == 0, in.readBoolean());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.library.app.schedule;
+
+import com.library.app.FineAccrualService;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepSchedulerTest {
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+    private static final long PASSED = Long.MIN_VALUE / 2; // a deadline already behind System.nanoTime()
+
+    private final User u = new User("U1", "Aseel");
+    private final InMemoryLoanRepository loans = new InMemoryLoanRepository();
+
+    /** Open loans due on each of the {@code days} days from {@code first}, two a day. */
+    private void loansDue(LocalDate first, int days) {
+        for (int d = 0; d < days; d++) {
+            for (int k = 0; k < 2; k++) {
+                LocalDate due = first.plusDays(d);
+                loans.save(new Loan(u, new Book("T", "A", due + "-" + k), due.minusDays(28), due));
+            }
+        }
+    }
+
+    @Test
+    void overdue_sweep_resumes_from_its_checkpoint_and_hands_each_loan_over_once() {
+        loansDue(DAY.minusDays(5), 8); // due DAY-5 .. DAY+2
+        var seen = new ArrayList<Loan>();
+        var sweep = DueDateSweep.overdue(loans, seen::add);
+
+        // out of time after every day: one due day per run
+        var r = sweep.run(DAY, Sweep.Checkpoint.START, PASSED);
+        assertEquals(2, r.processed());
+        assertFalse(r.caughtUp());
+        assertEquals(DAY.minusDays(5).toEpochDay(), r.checkpoint().position());
+        r = sweep.run(DAY, r.checkpoint(), PASSED);
+        assertEquals(DAY.minusDays(4).toEpochDay(), r.checkpoint().position());
+        r = sweep.run(DAY, r.checkpoint(), Long.MAX_VALUE);
+        assertTrue(r.caughtUp());
+        assertEquals(6, r.processed());
+        assertEquals(10, seen.size());
+        assertEquals(DAY.minusDays(1).toEpochDay(), r.checkpoint().position());
+
+        // the same day again finds nothing; the next day only what fell due
+        assertEquals(0, sweep.run(DAY, r.checkpoint(), Long.MAX_VALUE).processed());
+        r = sweep.run(DAY.plusDays(2), r.checkpoint(), Long.MAX_VALUE);
+        assertEquals(4, r.processed());
+        assertEquals(14, seen.size());
+        assertEquals(seen.size(), seen.stream().distinct().count());
+    }
+
+    @Test
+    void reminders_start_today_and_accrual_starts_over_each_day() {
+        loansDue(DAY.minusDays(3), 6); // due DAY-3 .. DAY+2
+        var reminded = new ArrayList<Loan>();
+        var r = DueDateSweep.reminders(loans, 1, reminded::add).run(DAY, Sweep.Checkpoint.START, Long.MAX_VALUE);
+        assertEquals(4, r.processed()); // due today and tomorrow, not the overdue ones
+        assertTrue(reminded.stream().allMatch(l -> !l.getDueDate().isBefore(DAY)));
+
+        var fines = new InMemoryFineRepository();
+        var engine = new FineAccrualService(loans, fines, Clock.systemUTC(), new FineAccrualService.Policy(100, 10_000),
+                ForkJoinPool.commonPool(), FineAccrualService.DEFAULT_PARTITION, null);
+        var accrual = DueDateSweep.accrual(loans, () -> engine);
+        var cp = accrual.run(DAY, Sweep.Checkpoint.START, PASSED).checkpoint(); // one due day only
+        cp = accrual.run(DAY, cp, Long.MAX_VALUE).checkpoint();
+        assertEquals(2 * (300 + 200 + 100), fines.balance(u));
+        assertEquals(0, accrual.run(DAY, cp, Long.MAX_VALUE).processed());
+        var next = accrual.run(DAY.plusDays(1), cp, Long.MAX_VALUE);
+        assertEquals(8, next.processed()); // all overdue loans again, including the one due yesterday
+        assertEquals(2 * (300 + 200 + 100) + 2 * 4 * 100, fines.balance(u));
+    }
+
+    @Test
+    void scheduler_runs_pauses_resumes_and_keeps_checkpoints_across_restarts() throws Exception {
+        loansDue(DAY.minusDays(10), 10);
+        var file = Files.createTempDirectory("sweeps").resolve("checkpoints");
+        var today = new AtomicReference<>(DAY);
+        var seen = new ConcurrentLinkedQueue<Loan>();
+        try (var scheduler = new SweepScheduler(today::get, file)) {
+            scheduler.schedule(DueDateSweep.overdue(loans, seen::add), Duration.ofMillis(20), Duration.ofMillis(5),
+                    Duration.ofSeconds(5));
+            await(() -> seen.size() == 20);
+            scheduler.pause("overdue");
+            long runs = scheduler.status().get(0).runs();
+            loansDue(DAY, 1);
+            today.set(DAY.plusDays(1));
+            Thread.sleep(100);
+            assertEquals(20, seen.size()); // paused: nothing new is picked up
+            assertTrue(scheduler.status().get(0).runs() <= runs + 1);
+            assertTrue(scheduler.status().get(0).paused());
+
+            scheduler.runNow("overdue"); // runs even while paused
+            await(() -> seen.size() == 22);
+            scheduler.resume("overdue");
+            assertThrows(IllegalArgumentException.class, () -> scheduler.pause("nope"));
+            assertThrows(IllegalStateException.class, () -> scheduler.schedule(DueDateSweep.overdue(loans, seen::add),
+                    Duration.ofMillis(20), Duration.ZERO, Duration.ofSeconds(1)));
+        }
+
+        // a new scheduler on the same file carries on after the checkpoint
+        loansDue(DAY.plusDays(1), 1);
+        today.set(DAY.plusDays(2));
+        var after = new ConcurrentLinkedQueue<Loan>();
+        try (var scheduler = new SweepScheduler(today::get, file)) {
+            scheduler.schedule(DueDateSweep.overdue(loans, after::add), Duration.ofMillis(20), Duration.ZERO,
+                    Duration.ofSeconds(5));
+            await(() -> scheduler.status().get(0).runs() >= 2);
+            var status = scheduler.status().get(0);
+            assertEquals(DAY.plusDays(1).toEpochDay(), status.checkpoint().position());
+            assertTrue(status.caughtUp());
+            assertNull(status.lastError());
+        }
+        assertEquals(2, after.size());
+        assertTrue(after.stream().allMatch(l -> l.getDueDate().equals(DAY.plusDays(1))));
+        Files.delete(file);
+        Files.delete(file.getParent());
+    }
+
+    @Test
+    void failing_sweep_reports_its_error_and_keeps_its_checkpoint() throws Exception {
+        List<Sweep.Checkpoint> given = new ArrayList<>();
+        Sweep broken = new Sweep() {
+            public String name() { return "broken"; }
+            public Result run(LocalDate today, Checkpoint from, long deadline) {
+                synchronized (given) { given.add(from); }
+                throw new IllegalStateException("boom");
+            }
+        };
+        try (var scheduler = new SweepScheduler(() -> DAY)) {
+            scheduler.schedule(broken, Duration.ofMillis(10), Duration.ZERO, Duration.ofSeconds(1));
+            await(() -> scheduler.status().get(0).runs() >= 3);
+            var status = scheduler.status().get(0);
+            assertEquals("java.lang.IllegalStateException: boom", status.lastError());
+            assertEquals(Sweep.Checkpoint.START, status.checkpoint());
+        }
+        synchronized (given) {
+            assertTrue(given.stream().allMatch(Sweep.Checkpoint.START::equals));
+        }
+    }
+
+    @Test
+    void sweep_throwing_an_error_keeps_its_schedule() throws Exception {
+        Sweep fatal = new Sweep() {
+            public String name() { return "fatal"; }
+            public Result run(LocalDate today, Checkpoint from, long deadline) { throw new Error("fatal"); }
+        };
+        try (var scheduler = new SweepScheduler(() -> DAY)) {
+            scheduler.schedule(fatal, Duration.ofMillis(10), Duration.ZERO, Duration.ofSeconds(1));
+            await(() -> scheduler.status().get(0).runs() >= 3);
+            assertEquals("java.lang.Error: fatal", scheduler.status().get(0).lastError());
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
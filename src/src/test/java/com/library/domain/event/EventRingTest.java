@@ -0,0 +1,174 @@
+package com.library.domain.event;
+
+import com.library.app.BorrowingService;
+import com.library.app.FineService;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.infrastructure.InMemoryFineRepository;
+import com.library.infrastructure.InMemoryLoanRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void every_handler_sees_every_event_in_order_despite_a_small_ring() throws Exception {
+        var ring = new EventRing(8); // far fewer slots than events, so publishers must wait
+        var fast = new ArrayList<Long>();
+        var slow = new ArrayList<Long>();
+        var ends = new long[1];
+        ring.addHandler("fast", (e, seq, end) -> {
+            fast.add(e.agorot());
+            if (end) ends[0]++;
+        });
+        ring.addHandler("slow", (e, seq, end) -> {
+            if (seq % 100 == 0) Thread.sleep(1);
+            slow.add(seq);
+        });
+        ring.start();
+
+        var user = new User("U1", "Aseel");
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                long base = p * 1_000_000L;
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_500; i++) ring.fineAccrued(user, base + i);
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        ring.close();
+
+        assertEquals(10_000, fast.size());
+        assertEquals(10_000, slow.size());
+        for (int i = 0; i < slow.size(); i++) assertEquals(i, (long) slow.get(i));
+        // each publisher's events keep their own order
+        long[] last = {-1, -1, -1, -1};
+        for (long a : fast) {
+            int p = (int) (a / 1_000_000);
+            assertTrue(a > last[p]);
+            last[p] = a;
+        }
+        assertTrue(ends[0] >= 1 && ends[0] <= 10_000);
+        assertEquals(9_999, ring.cursor());
+    }
+
+    @Test
+    void publishing_allocates_nothing() throws Exception {
+        var ring = new EventRing(1 << 10);
+        var counts = new EventCounts();
+        ring.addHandler("counts", counts);
+        ring.start();
+        var user = new User("U1", "Aseel");
+        var loan = new Loan(user, new Book("Clean Code", "Robert C. Martin", "ISBN-1"), LocalDate.of(2025, 1, 1),
+                LocalDate.of(2025, 1, 29));
+        for (int i = 0; i < 20_000; i++) ring.loanCreated(loan); // load classes and compile before measuring
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 100_000; i++) {
+            ring.loanCreated(loan);
+            ring.fineAccrued(user, 150);
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(tid) - before;
+        ring.close();
+
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+        assertEquals(120_000, counts.count(LoanEvent.Type.LOAN_CREATED));
+        assertEquals(15_000_000, counts.agorot(LoanEvent.Type.FINE_ACCRUED));
+    }
+
+    @Test
+    void services_publish_loans_returns_fines_and_payments() throws Exception {
+        var ring = new EventRing(64);
+        var counts = new EventCounts();
+        var seen = new ArrayList<String>();
+        ring.addHandler("counts", counts);
+        ring.addHandler("log", (e, seq, end) -> seen.add(e.type() + " " + e.user().getId()
+                + (e.book() == null ? "" : " " + e.book().getIsbn())));
+        ring.start();
+        var clock = Clock.fixed(Instant.parse("2025-01-01T10:00:00Z"), ZoneOffset.UTC);
+        var borrowing = new BorrowingService(new InMemoryLoanRepository(), clock, loan -> {}, ring);
+        var fines = new FineService(new InMemoryFineRepository(), ring);
+        var user = new User("U1", "Aseel");
+        var a = new Book("A", "X", "ISBN-A");
+        var b = new Book("B", "Y", "ISBN-B");
+
+        borrowing.borrow(user, a);
+        borrowing.returnBook(user, a);
+        assertTrue(borrowing.borrowAll(user, List.of(a, b)).applied());
+        assertTrue(borrowing.returnAll(List.of(a, b)).applied());
+        assertThrows(IllegalStateException.class, () -> borrowing.returnBook(user, a));
+        fines.addFineAgorot(user, 250);
+        assertEquals(250, fines.payAgorot(user, 1_000));
+        assertEquals(0, fines.payAgorot(user, 100)); // nothing applied, nothing published
+        ring.close();
+
+        assertEquals(List.of("LOAN_CREATED U1 ISBN-A", "LOAN_RETURNED U1 ISBN-A",
+                "LOAN_CREATED U1 ISBN-A", "LOAN_CREATED U1 ISBN-B",
+                "LOAN_RETURNED U1 ISBN-A", "LOAN_RETURNED U1 ISBN-B",
+                "FINE_ACCRUED U1", "FINE_PAID U1"), seen);
+        assertEquals(3, counts.count(LoanEvent.Type.LOAN_CREATED));
+        assertEquals(3, counts.count(LoanEvent.Type.LOAN_RETURNED));
+        assertEquals(250, counts.agorot(LoanEvent.Type.FINE_PAID));
+    }
+
+    @Test
+    void failing_handler_skips_the_event_and_carries_on() throws Exception {
+        var ring = new EventRing(4);
+        var seen = new ArrayList<Long>();
+        ring.addHandler("flaky", (e, seq, end) -> {
+            if (seq == 2) throw new IllegalStateException("boom");
+            seen.add(seq);
+        });
+        ring.start();
+        var user = new User("U1", "Aseel");
+        for (int i = 0; i < 10; i++) ring.finePaid(user, i);
+        ring.close();
+
+        assertEquals(List.of(0L, 1L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), seen);
+        assertEquals(1, ring.errors());
+        assertThrows(IllegalStateException.class, () -> ring.addHandler("late", (e, seq, end) -> {}));
+        assertThrows(IllegalArgumentException.class, () -> new EventRing(12));
+    }
+
+    @Test
+    void publishing_after_close_drops_events_instead_of_waiting() throws Exception {
+        var ring = new EventRing(4);
+        var counts = new EventCounts();
+        ring.addHandler("counts", counts);
+        ring.start();
+        var user = new User("U1", "Aseel");
+        ring.finePaid(user, 1);
+        ring.close();
+
+        var pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> late = pool.submit(() -> { for (int i = 0; i < 100; i++) ring.finePaid(user, 1); });
+            late.get(5, TimeUnit.SECONDS); // more than the ring holds, with no handler left
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, counts.count(LoanEvent.Type.FINE_PAID));
+        assertEquals(0, ring.cursor());
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibrarianAllocationTest {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void search_over_a_million_books_allocates_only_the_result() {
+        var catalog = new ArrayList<Book>(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            catalog.add(new Book("Title " + i, "Author " + (i % 1000), "978" + (1_000_000_000 + i)));
+        }
+        var librarian = new Librarian();
+        librarian.search(catalog, "AUTHOR 7"); // load classes before measuring
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        List<Book> hits = librarian.search(catalog, "TITLE 99999");
+        long allocated = THREADS.getThreadAllocatedBytes(tid) - before;
+
+        assertEquals(11, hits.size()); // 99999 and 999990..999999
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void folded_matching_agrees_with_plain_matching() {
+        var b = new Book("Ünïcödé Engineering", "Maram", "ISBN-x");
+        assertTrue(b.matches("ÜNÏ"));
+        assertTrue(b.matchesFolded(Book.fold("ENGINEERING")));
+        assertTrue(b.matches("isbn-X"));
+        assertFalse(b.matches("engineeringg"));
+    }
+}
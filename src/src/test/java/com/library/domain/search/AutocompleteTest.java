@@ -0,0 +1,82 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+import com.library.domain.search.Autocomplete.Kind;
+import com.library.domain.search.Autocomplete.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompleteTest {
+    @Test
+    void completes_titles_and_authors_from_any_word_start_by_circulation() {
+        var ac = new Autocomplete(3);
+        var clean = new Book("Clean Code", "Robert C. Martin", "1");
+        var coder = new Book("The Clean Coder", "Robert C. Martin", "2");
+        var compilers = new Book("Compilers", "Aho", "3");
+        ac.addAll(List.of(clean, coder, compilers));
+
+        assertEquals(List.of(new Suggestion("Clean Code", Kind.TITLE, 0), new Suggestion("Compilers", Kind.TITLE, 0)),
+                ac.suggest("C", 2));
+        assertEquals(List.of("Clean Code", "The Clean Coder"), texts(ac.suggest("cod", 5)));
+        assertEquals(List.of("Robert C. Martin"), texts(ac.suggest("mart", 5)));
+        assertEquals(List.of(), ac.suggest("lean", 5)); // not a word start
+
+        ac.recordLoan(compilers);
+        ac.recordLoan(coder);
+        ac.recordLoan(coder);
+        // ties break alphabetically
+        assertEquals(List.of(new Suggestion("Robert C. Martin", Kind.AUTHOR, 2), new Suggestion("The Clean Coder", Kind.TITLE, 2),
+                new Suggestion("Aho", Kind.AUTHOR, 1)), ac.suggest("", 3));
+        assertEquals(List.of("The Clean Coder", "Clean Code"), texts(ac.suggest("clean", 5)));
+    }
+
+    @Test
+    void cached_top_lists_equal_brute_force_ranking() {
+        var rnd = new Random(11);
+        var ac = new Autocomplete(5);
+        var books = new ArrayList<Book>();
+        Map<String, Long> titleLoans = new HashMap<>(), authorLoans = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            if (books.isEmpty() || rnd.nextInt(3) == 0) {
+                var b = new Book(word(rnd) + " " + word(rnd), word(rnd), "I" + i);
+                books.add(b);
+                ac.add(b);
+                titleLoans.putIfAbsent(b.getTitle().toLowerCase(Locale.ROOT), 0L);
+                authorLoans.putIfAbsent(b.getAuthor().toLowerCase(Locale.ROOT), 0L);
+            } else {
+                var b = books.get(rnd.nextInt(books.size()));
+                ac.recordLoan(b);
+                titleLoans.merge(b.getTitle().toLowerCase(Locale.ROOT), 1L, Long::sum);
+                authorLoans.merge(b.getAuthor().toLowerCase(Locale.ROOT), 1L, Long::sum);
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            String p = word(rnd).substring(0, 1 + rnd.nextInt(2)).toLowerCase(Locale.ROOT);
+            var expected = new ArrayList<Suggestion>();
+            titleLoans.forEach((t, n) -> { if (wordStarts(t, p)) expected.add(new Suggestion(t, Kind.TITLE, n)); });
+            authorLoans.forEach((a, n) -> { if (wordStarts(a, p)) expected.add(new Suggestion(a, Kind.AUTHOR, n)); });
+            expected.sort(Comparator.comparingLong(Suggestion::circulation).reversed()
+                    .thenComparing(Suggestion::text).thenComparing(Suggestion::kind));
+            var got = ac.suggest(p, 5).stream()
+                    .map(s -> new Suggestion(s.text().toLowerCase(Locale.ROOT), s.kind(), s.circulation())).toList();
+            assertEquals(expected.subList(0, Math.min(5, expected.size())), got, p);
+        }
+    }
+
+    private static boolean wordStarts(String s, String p) {
+        for (String w : s.split(" ")) if (w.startsWith(p)) return true;
+        return s.startsWith(p);
+    }
+
+    private static List<String> texts(List<Suggestion> s) { return s.stream().map(Suggestion::text).toList(); }
+
+    private static String word(Random rnd) {
+        var sb = new StringBuilder();
+        int len = 2 + rnd.nextInt(5);
+        for (int i = 0; i < len; i++) sb.append((char) ((rnd.nextBoolean() ? 'a' : 'A') + rnd.nextInt(5)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Librarian;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogIndexTest {
+    @Test
+    void short_and_long_queries_use_contains_semantics() {
+        var index = new CatalogIndex();
+        var b1 = new Book("Engineering", "Maram", "9780132350884");
+        var b2 = new Book("ComputerEng", "Aseel", "9780201485677");
+        index.add(b1);
+        index.add(b2);
+
+        assertEquals(List.of(b1), index.search("Engineering"));
+        assertEquals(List.of(b1, b2), index.search("m"));
+        assertEquals(List.of(b1), index.search("0884"));
+        assertEquals(List.of(b2), index.search("ERENG"));
+        assertEquals(List.of(), index.search("zzz"));
+        assertEquals(List.of(b1, b2), index.search(""));
+    }
+
+    @Test
+    void trigrams_spanning_two_fields_are_not_a_match() {
+        var index = new CatalogIndex();
+        index.add(new Book("abc", "cde", "X"));
+        assertTrue(index.search("abcd").isEmpty());
+    }
+
+    @Test
+    void same_results_as_linear_scan_on_random_catalog() {
+        var rnd = new Random(42);
+        var catalog = new ArrayList<Book>();
+        var index = new CatalogIndex();
+        for (int i = 0; i < 2_000; i++) {
+            var b = new Book(word(rnd) + " " + word(rnd), word(rnd), "978" + rnd.nextInt(1_000_000));
+            catalog.add(b);
+            index.add(b);
+        }
+        var librarian = new Librarian();
+        for (int i = 0; i < 500; i++) {
+            String q = word(rnd);
+            q = q.substring(0, 1 + rnd.nextInt(q.length()));
+            assertEquals(librarian.search(catalog, q), librarian.search(index, q), q);
+        }
+    }
+
+    @Test
+    void author_matches_merge_with_title_matches_in_insertion_order() {
+        var authors = new TermDictionary();
+        authors.intern("Zed Writer"); // ids out of insertion order, as with a shared dictionary
+        authors.intern("Ann Writer");
+        var index = new CatalogIndex(authors, new TermDictionary());
+        var b1 = new Book("Writer's Block", "Ann Writer", "1");
+        var b2 = new Book("Other", "Zed Writer", "2");
+        var b3 = new Book("More", "Ann Writer", "3");
+        var b4 = new Book("Unrelated", "Nobody", "4");
+        index.addAll(List.of(b1, b2, b3, b4));
+
+        assertEquals(List.of(b1, b2, b3), index.search("writer"));
+        assertEquals(List.of(b1, b3), index.search("ann w"));
+        assertEquals(List.of(b2), index.search("zed"));
+        assertEquals(List.of(b4), index.search("NOBO"));
+        assertEquals(3, authors.size());
+        assertSame(authors.term(authors.find("Ann Writer")), authors.canonical(new String("Ann Writer")));
+        assertEquals("ann writer", authors.folded(authors.find("Ann Writer")));
+    }
+
+    @Test
+    void ranked_search_weights_fields_and_pages_through_hits() {
+        var index = new CatalogIndex();
+        var isbnHit = new Book("Other", "Someone", "978-java-1");
+        var authorHit = new Book("Unrelated", "Jim Java", "2");
+        var titleHit = new Book("Learning Java", "A", "3");
+        var titlePrefix = new Book("Java Basics", "B", "4");
+        var titleHit2 = new Book("More Java", "C", "5");
+        index.addAll(List.of(isbnHit, authorHit, titleHit, titlePrefix, titleHit2, new Book("No", "Match", "6")));
+
+        var first = index.search("JAVA", 0, 2);
+        assertEquals(List.of(titlePrefix, titleHit), first.books());
+        assertEquals(5, first.total());
+        assertTrue(first.hasMore());
+        var second = index.search("java", 2, 2);
+        assertEquals(List.of(titleHit2, authorHit), second.books());
+        var last = index.search("java", 4, 2);
+        assertEquals(List.of(isbnHit), last.books());
+        assertFalse(last.hasMore());
+        assertEquals(List.of(), index.search("java", 10, 2).books());
+        assertThrows(IllegalArgumentException.class, () -> index.search("java", 0, 0));
+    }
+
+    @Test
+    void ranked_index_pages_equal_ranked_linear_pages() {
+        var rnd = new Random(7);
+        var catalog = new ArrayList<Book>();
+        var index = new CatalogIndex();
+        for (int i = 0; i < 2_000; i++) {
+            var b = new Book(word(rnd) + " " + word(rnd), word(rnd), "978" + rnd.nextInt(1_000_000));
+            catalog.add(b);
+            index.add(b);
+        }
+        var librarian = new Librarian();
+        for (int i = 0; i < 300; i++) {
+            String q = word(rnd);
+            q = q.substring(0, 1 + rnd.nextInt(q.length()));
+            int offset = rnd.nextInt(30), limit = 1 + rnd.nextInt(20);
+            var expected = librarian.search(catalog, q, offset, limit);
+            assertEquals(expected, librarian.search(index, q, offset, limit), q);
+            assertEquals(librarian.search(catalog, q).size(), expected.total(), q);
+        }
+    }
+
+    @Test
+    void fuzzy_index_pages_equal_fuzzy_linear_pages() {
+        var rnd = new Random(17);
+        var catalog = new ArrayList<Book>();
+        var index = new CatalogIndex();
+        for (int i = 0; i < 2_000; i++) {
+            var b = new Book(word(rnd) + " " + word(rnd) + " " + word(rnd), word(rnd) + " " + word(rnd), "978" + rnd.nextInt(1_000_000));
+            catalog.add(b);
+            index.add(b);
+        }
+        var librarian = new Librarian();
+        for (int i = 0; i < 300; i++) {
+            var sb = new StringBuilder(catalog.get(rnd.nextInt(catalog.size())).getTitle());
+            int edits = rnd.nextInt(3);
+            for (int e = 0; e < edits; e++) {
+                int at = rnd.nextInt(sb.length());
+                switch (rnd.nextInt(3)) {
+                    case 0 -> sb.deleteCharAt(at);
+                    case 1 -> sb.insert(at, (char) ('a' + rnd.nextInt(6)));
+                    default -> sb.setCharAt(at, (char) ('a' + rnd.nextInt(6)));
+                }
+            }
+            String q = sb.toString();
+            int maxEdits = rnd.nextInt(3), offset = rnd.nextInt(5), limit = 1 + rnd.nextInt(10);
+            var expected = librarian.fuzzySearch(catalog, q, maxEdits, offset, limit);
+            assertEquals(expected, librarian.fuzzySearch(index, q, maxEdits, offset, limit), q);
+            if (edits <= maxEdits) assertTrue(expected.total() > 0, q);
+        }
+    }
+
+    @Test
+    void short_fuzzy_queries_equal_fuzzy_linear_pages() {
+        var rnd = new Random(23);
+        var catalog = new ArrayList<Book>();
+        var index = new CatalogIndex();
+        for (int i = 0; i < 2_000; i++) {
+            var b = new Book(word(rnd) + " " + word(rnd), word(rnd) + " " + word(rnd), "978" + rnd.nextInt(1_000_000));
+            catalog.add(b);
+            index.add(b);
+        }
+        var librarian = new Librarian();
+        for (int i = 0; i < 500; i++) {
+            var b = catalog.get(rnd.nextInt(catalog.size()));
+            String field = rnd.nextBoolean() ? b.getTitle() : b.getAuthor();
+            int from = rnd.nextInt(field.length()), to = Math.min(field.length(), from + 1 + rnd.nextInt(8));
+            var sb = new StringBuilder(field.substring(from, to));
+            if (sb.length() > 1 && rnd.nextBoolean()) sb.setCharAt(rnd.nextInt(sb.length()), (char) ('a' + rnd.nextInt(6)));
+            String q = sb.toString();
+            int maxEdits = rnd.nextInt(FuzzyMatcher.MAX_EDITS + 1);
+            var expected = librarian.fuzzySearch(catalog, q, maxEdits, 0, 10);
+            assertEquals(expected, librarian.fuzzySearch(index, q, maxEdits, 0, 10), q + " / " + maxEdits);
+        }
+    }
+
+    @Test
+    void fuzzy_search_ranks_closer_and_heavier_fields_first() {
+        var index = new CatalogIndex();
+        var clean = new Book("Clean Code", "Robert C. Martin", "1");
+        var author = new Book("Other", "Clean Code Jr", "2");
+        var near = new Book("Clan Cde", "X", "3");
+        index.addAll(List.of(near, author, clean, new Book("Refactoring", "Fowler", "4")));
+
+        var page = index.fuzzySearch("Clen Code", 2, 0, 10);
+        assertEquals(List.of(clean, author, near), page.books()); // 1 edit title, 1 edit author, 2 edits
+        assertEquals(List.of(), index.fuzzySearch("Clen Code", 0, 0, 10).books());
+        assertThrows(IllegalArgumentException.class, () -> index.fuzzySearch("x", FuzzyMatcher.MAX_EDITS + 1, 0, 10));
+    }
+
+    private static String word(Random rnd) {
+        var sb = new StringBuilder();
+        int len = 2 + rnd.nextInt(6);
+        for (int i = 0; i < len; i++) sb.append((char) ((rnd.nextBoolean() ? 'a' : 'A') + rnd.nextInt(6)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Librarian;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogScanTest {
+    @Test
+    void parallel_scan_returns_sequential_results_in_catalog_order() {
+        var catalog = new ArrayList<Book>();
+        for (int i = 0; i < 100_003; i++) catalog.add(new Book("Title " + i, "Author " + (i % 97), "978" + i));
+        var pool = new ForkJoinPool(4);
+        try {
+            var scan = new CatalogScan(pool, 1_000, 10_000);
+            var sequential = new Librarian();
+            var parallel = new Librarian(scan);
+            for (String q : new String[] {"author 7", "TITLE 1000", "", "zzz", "9781"}) {
+                assertEquals(sequential.search(catalog, q), parallel.search(catalog, q), q);
+            }
+            var odd = parallel.filter(catalog, b -> b.getIsbn().endsWith("1") && b.getAuthor().equals("Author 3"));
+            assertEquals(sequential.filter(catalog, b -> b.getIsbn().endsWith("1") && b.getAuthor().equals("Author 3")), odd);
+            assertFalse(odd.isEmpty());
+            // below the threshold, or without random access, the caller's thread does the work
+            assertEquals(sequential.search(catalog.subList(0, 500), "title 4"), scan.search(catalog.subList(0, 500), "title 4"));
+            assertEquals(sequential.search(catalog, "author 5"), scan.search(new LinkedList<>(catalog), "author 5"));
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CatalogScan(ForkJoinPool.commonPool(), 0, 10));
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyMatcherTest {
+    @Test
+    void distance_is_best_substring_edit_distance_ignoring_case() {
+        var m = new FuzzyMatcher("Clen Code", 2);
+        assertEquals(1, m.distance("The Clean Coder"));
+        assertEquals(0, new FuzzyMatcher("CODE", 0).distance("clean code"));
+        assertEquals(2, new FuzzyMatcher("abcd", 2).distance("xxbadcxx")); // a transposition is two edits
+        assertEquals(3, new FuzzyMatcher("abc", 0).distance(""));
+        assertEquals(0, new FuzzyMatcher("", 0).distance("anything"));
+        assertEquals(1, new FuzzyMatcher("Müller", 1).distance("MULLER"));
+    }
+
+    @Test
+    void bit_parallel_and_long_queries_agree_with_dynamic_programming() {
+        var rnd = new Random(5);
+        for (int i = 0; i < 3_000; i++) {
+            String p = random(rnd, 1 + rnd.nextInt(i % 10 == 0 ? 90 : 12));
+            String t = random(rnd, rnd.nextInt(40));
+            assertEquals(sellers(p, t), new FuzzyMatcher(p, 0).distance(t), p + " / " + t);
+        }
+    }
+
+    @Test
+    void score_prefers_fewer_edits_then_field_weight() {
+        var m = new FuzzyMatcher("java", 1);
+        int exactTitle = m.score(new Book("Java", "x", "1"));
+        int exactAuthor = m.score(new Book("x", "Java", "2"));
+        int typoTitle = m.score(new Book("Jeva", "x", "3"));
+        assertTrue(exactTitle > exactAuthor && exactAuthor > typoTitle && typoTitle > 0);
+        assertEquals(0, m.score(new Book("Jeeve", "x", "4")));
+        assertEquals(2, FuzzyMatcher.defaultEdits(9));
+        assertThrows(IllegalArgumentException.class, () -> new FuzzyMatcher("java", -1));
+    }
+
+    private static int sellers(String p, String t) {
+        int[][] d = new int[p.length() + 1][t.length() + 1];
+        for (int i = 1; i <= p.length(); i++) d[i][0] = i;
+        for (int i = 1; i <= p.length(); i++) {
+            for (int j = 1; j <= t.length(); j++) {
+                int sub = d[i - 1][j - 1] + (p.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(sub, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        int best = p.length();
+        for (int j = 0; j <= t.length(); j++) best = Math.min(best, d[p.length()][j]);
+        return best;
+    }
+
+    private static String random(Random rnd, int len) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < len; i++) sb.append((char) ('a' + rnd.nextInt(4)));
+        return sb.toString();
+    }
+}
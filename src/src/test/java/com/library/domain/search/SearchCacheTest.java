@@ -0,0 +1,69 @@
+package com.library.domain.search;
+
+import com.library.domain.model.Book;
+import com.library.domain.search.SearchCache.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCacheTest {
+    @Test
+    void repeats_hit_and_adding_a_book_drops_only_the_queries_it_matches() {
+        var index = new CatalogIndex();
+        var cache = new SearchCache(16);
+        var java = new Book("Effective Java", "Bloch", "1");
+        index.add(java);
+
+        var first = cache.get(Query.exact("Java", 0, 10), () -> index.search("java", 0, 10));
+        assertSame(first, cache.get(Query.exact("JAVA", 0, 10), SearchCacheTest::notCached));
+        cache.get(Query.fuzzy("Blohc", 2, 0, 10), () -> index.fuzzySearch("blohc", 2, 0, 10));
+        cache.get(Query.exact("clean", 0, 10), () -> index.search("clean", 0, 10));
+        assertEquals(new SearchCache.Stats(1, 3, 0, 0, 3), cache.stats());
+
+        var clean = new Book("Clean Code", "Martin", "2");
+        index.add(clean);
+        cache.invalidate(clean);
+        assertEquals(List.of(clean), cache.get(Query.exact("clean", 0, 10), () -> index.search("clean", 0, 10)).books());
+        assertSame(first, cache.get(Query.exact("java", 0, 10), SearchCacheTest::notCached));
+
+        var bloch = new Book("Java Puzzlers", "Bloch", "3");
+        index.add(bloch);
+        cache.invalidate(bloch); // matches "java" exactly and "blohc" within 2 edits
+        assertEquals(3, cache.stats().invalidations());
+        assertEquals(2, cache.get(Query.exact("java", 0, 10), () -> index.search("java", 0, 10)).total());
+    }
+
+    @Test
+    void cached_pages_show_current_availability() {
+        var index = new CatalogIndex();
+        var cache = new SearchCache(16);
+        var b = new Book("Dune", "Herbert", "1");
+        index.add(b);
+        cache.get(Query.exact("dune", 0, 10), () -> index.search("dune", 0, 10));
+        b.markBorrowed();
+        assertFalse(cache.get(Query.exact("dune", 0, 10), SearchCacheTest::notCached).books().get(0).isAvailable());
+        b.markReturned();
+        assertTrue(cache.get(Query.exact("dune", 0, 10), SearchCacheTest::notCached).books().get(0).isAvailable());
+    }
+
+    @Test
+    void frequent_queries_survive_a_scan_of_one_off_queries() {
+        var cache = new SearchCache(100);
+        for (int round = 0; round < 5; round++) {
+            for (int q = 0; q < 50; q++) cache.get(Query.exact("popular" + q, 0, 10), SearchCacheTest::empty);
+            cache.get(Query.exact("filler" + round, 0, 10), SearchCacheTest::empty); // pushes the last one out of the window
+        }
+        for (int q = 0; q < 10_000; q++) cache.get(Query.exact("once" + q, 0, 10), SearchCacheTest::empty);
+        long before = cache.stats().hits();
+        for (int q = 0; q < 50; q++) cache.get(Query.exact("popular" + q, 0, 10), SearchCacheTest::empty);
+        assertEquals(50, cache.stats().hits() - before);
+        assertTrue(cache.stats().size() <= 100);
+        assertTrue(cache.stats().evictions() >= 10_000 - 50);
+    }
+
+    private static SearchPage notCached() { throw new AssertionError("expected a cache hit"); }
+
+    private static SearchPage empty() { return new SearchPage(List.of(), 0, 10, 0); }
+}
@@ -1,6 +1,7 @@
 package com.library.domain.service;
 
 import com.library.domain.model.*;
+import com.library.infrastructure.InMemoryLoanRepository;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
@@ -24,4 +25,29 @@ class OverdueServiceTest {
         assertEquals(1, res.size());
         assertTrue(res.contains(l1));
     }
+
+    @Test
+    void indexed_mode_tracks_returns_and_the_clock() {
+        var repo = new InMemoryLoanRepository();
+        var u = new User("U1","Aseel");
+        var b1 = new Book("A","B","I-1");
+        var b2 = new Book("C","D","I-2");
+        var l1 = new Loan(u,b1, LocalDate.of(2024,12,1), LocalDate.of(2024,12,29));
+        var l2 = new Loan(u,b2, LocalDate.of(2025,1,10), LocalDate.of(2025,2,7));
+        repo.save(l2);
+        repo.save(l1);
+
+        var feb1 = new OverdueService(Clock.fixed(Instant.parse("2025-02-01T00:00:00Z"), ZoneId.of("UTC")), repo);
+        assertEquals(List.of(l1), feb1.findOverdues());
+
+        var feb7 = new OverdueService(Clock.fixed(Instant.parse("2025-02-07T00:00:00Z"), ZoneId.of("UTC")), repo);
+        assertEquals(List.of(l1), feb7.findOverdues()); // due today is not overdue yet
+
+        var feb8 = new OverdueService(Clock.fixed(Instant.parse("2025-02-08T00:00:00Z"), ZoneId.of("UTC")), repo);
+        assertEquals(List.of(l1, l2), feb8.findOverdues());
+
+        l1.markReturned();
+        assertEquals(List.of(l2), feb8.findOverdues());
+        assertEquals(feb8.findOverdues(repo.findAll()), feb8.findOverdues());
+    }
 }
@@ -0,0 +1,71 @@
+package com.library.infrastructure;
+
+import com.library.app.BorrowingService;
+import com.library.domain.model.Book;
+import com.library.domain.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarBookRepositoryTest {
+    @Test
+    void rows_round_trip_through_views_in_insertion_order() {
+        var repo = new ColumnarBookRepository();
+        var borrowed = new Book("Borrowed", "Same Author", "ISBN-1");
+        borrowed.markBorrowed();
+        assertTrue(repo.saveIfAbsent(new Book("Clean Code", "Robert C. Martin", "9780132350884")));
+        assertTrue(repo.saveIfAbsent(new Book("Leading zero", "Same Author", "0000000000017")));
+        assertTrue(repo.saveIfAbsent(borrowed));
+        assertTrue(repo.saveIfAbsent(new Book("Ünïcödé 書", "Same Author", "979-10-90636-07-1")));
+        assertFalse(repo.saveIfAbsent(new Book("Dup", "X", "9780132350884")));
+
+        assertEquals(4, repo.count());
+        assertEquals(List.of("9780132350884", "0000000000017", "ISBN-1", "979-10-90636-07-1"),
+                repo.stream().map(Book::getIsbn).toList());
+        assertEquals("Ünïcödé 書", repo.findByIsbn("979-10-90636-07-1").orElseThrow().getTitle());
+        assertEquals("Leading zero", repo.findByIsbn("0000000000017").orElseThrow().getTitle());
+        assertFalse(repo.findByIsbn("ISBN-1").orElseThrow().isAvailable());
+        assertEquals(Optional.empty(), repo.findByIsbn("17"));
+
+        repo.save(new Book("Clean Code 2nd", "Robert C. Martin", "9780132350884"));
+        assertEquals(4, repo.count());
+        assertEquals("Clean Code 2nd", repo.findAll().get(0).getTitle());
+        assertTrue(repo.findByIsbn("9780132350884").orElseThrow().matches("2ND"));
+    }
+
+    @Test
+    void views_of_one_row_are_equal_and_share_availability() {
+        var repo = new ColumnarBookRepository();
+        repo.save(new Book("T", "A", "9780000000001"));
+        Book a = repo.findByIsbn("9780000000001").orElseThrow();
+        Book b = repo.findAll().get(0);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertTrue(a.tryMarkBorrowed());
+        assertFalse(b.isAvailable());
+        assertFalse(b.tryMarkBorrowed());
+        assertTrue(b.tryMarkReturned());
+        assertTrue(a.isAvailable());
+    }
+
+    @Test
+    void borrowing_service_works_on_views() {
+        var repo = new ColumnarBookRepository();
+        for (int i = 0; i < 200_000; i++) repo.save(new Book("Title " + i, "Author " + (i % 50), "978" + String.format("%010d", i)));
+        var svc = new BorrowingService(new InMemoryLoanRepository(), Clock.systemUTC());
+        var user = new User("U1", "Aseel");
+        Book last = repo.findByIsbn("9780000199999").orElseThrow();
+
+        svc.borrow(user, last);
+        assertFalse(repo.findByIsbn("9780000199999").orElseThrow().isAvailable());
+        assertThrows(IllegalStateException.class, () -> svc.borrow(new User("U2", "Maram"), repo.findAll().get(199_999)));
+        svc.returnBook(user, repo.findByIsbn("9780000199999").orElseThrow());
+        assertTrue(last.isAvailable());
+        assertEquals("Author 49", last.getAuthor());
+    }
+}
@@ -0,0 +1,230 @@
+package com.library.infrastructure;
+
+import com.library.app.FineAccrualService;
+import com.library.app.FineService;
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import com.library.domain.repository.FineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableFineRepositoryTest {
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("fines");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void balances_survive_restart_and_automatic_checkpoints() throws IOException {
+        var u1 = new User("U1", "Aseel");
+        var u2 = new User("U2", "Maram");
+        try (var repo = new DurableFineRepository(dir, 100)) {
+            var svc = new FineService(repo);
+            for (int i = 0; i < 250; i++) svc.addFine(u1, 0.5);
+            svc.addFine(u2, 30);
+            svc.pay(u2, 45);
+        }
+        try (var repo = new DurableFineRepository(dir, 100)) {
+            assertEquals(12_500, repo.balance(u1));
+            assertEquals(0, repo.balance(u2));
+            assertEquals(125.0, new FineService(repo).balance(u1));
+        }
+    }
+
+    @Test
+    void concurrent_postings_are_group_committed_and_all_recovered() throws Exception {
+        var u = new User("U1", "Aseel");
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            var svc = new FineService(repo);
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+            try {
+                List<Future<?>> fs = new ArrayList<>();
+                for (int t = 0; t < 16; t++) fs.add(pool.submit(() -> { for (int i = 0; i < 200; i++) svc.addFineAgorot(u, 3); }));
+                for (var f : fs) f.get();
+            } finally {
+                pool.shutdownNow();
+            }
+            assertEquals(9_600, svc.balanceAgorot(u));
+        }
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            assertEquals(9_600, repo.balance(u));
+        }
+    }
+
+    @Test
+    void racing_payments_and_accruals_replay_to_the_balances_they_left() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) users.add(new User("U" + i, "Reader " + i));
+        long[] before = new long[users.size()];
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                for (int round = 0; round < 20; round++) {
+                    // payments are capped at the balance, so their logged amount depends on order
+                    Future<?> accrue = pool.submit(() -> users.forEach(u -> repo.accrue(u, 1_000)));
+                    Future<?> pay = pool.submit(() -> users.forEach(u -> repo.pay(u, 1_000)));
+                    accrue.get();
+                    pay.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            for (int i = 0; i < users.size(); i++) before[i] = repo.balance(users.get(i));
+        }
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            for (int i = 0; i < users.size(); i++) assertEquals(before[i], repo.balance(users.get(i)), users.get(i).getId());
+        }
+    }
+
+    @Test
+    void accrued_days_survive_restarts_and_checkpoints_so_reruns_charge_nothing_twice() throws IOException {
+        var u = new User("U1", "Aseel");
+        LocalDate borrowed = LocalDate.of(2025, 1, 1), due = borrowed.plusDays(28);
+        var policy = new FineAccrualService.Policy(100, 5_000);
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            var loans = loans(u, borrowed, due);
+            assertEquals(3 * 300, accrue(loans, repo, due.plusDays(3), policy).agorot());
+            assertEquals(0, accrue(loans, repo, due.plusDays(3), policy).agorot());
+        }
+        // after a restart the loans are new objects; the log still knows how far they are fined
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            var loans = loans(u, borrowed, due);
+            assertEquals(due.plusDays(3).toEpochDay(), repo.finedThrough(loans.findAll().get(0)));
+            assertEquals(0, accrue(loans, repo, due.plusDays(3), policy).agorot());
+            assertEquals(3 * 100, accrue(loans, repo, due.plusDays(4), policy).agorot());
+            repo.checkpoint();
+        }
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            var loans = loans(u, borrowed, due);
+            assertEquals(0, accrue(loans, repo, due.plusDays(4), policy).agorot());
+            assertEquals(3 * 400, repo.balance(u));
+        }
+    }
+
+    @Test
+    void runs_for_different_days_priced_from_the_same_day_charge_each_day_once() throws Exception {
+        var u = new User("U1", "Aseel");
+        LocalDate borrowed = LocalDate.of(2025, 1, 1), due = borrowed.plusDays(28);
+        long l = due.toEpochDay();
+        var policy = new FineAccrualService.Policy(100, 50_000);
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            accrue(loans(u, borrowed, due), repo, due.plusDays(1), policy);
+        }
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            // both priced from the logged day; the second must not charge the first one's days again
+            var loan = loans(u, borrowed, due).findAll().get(0);
+            long from = repo.finedThrough(loan);
+            assertEquals(l + 1, from);
+            var first = new FineRepository.Accrual(loan, from, l + 3, 200);
+            var second = new FineRepository.Accrual(loan, from, l + 5, 400);
+            assertEquals(List.of(first), repo.accrueAll(List.of(first)));
+            assertEquals(List.of(), repo.accrueAll(List.of(second)));
+            assertEquals(3 * 100 + 200, repo.balance(u));
+
+            // whole runs for different days at once, on loans that only the log knows are fined
+            var loans = loans(u, borrowed, due);
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> runs = new ArrayList<>();
+                for (int d = 2; d <= 9; d++) {
+                    LocalDate day = due.plusDays(d);
+                    runs.add(pool.submit(() -> accrue(loans, repo, day, policy)));
+                }
+                for (var f : runs) f.get();
+            } finally {
+                pool.shutdownNow();
+            }
+            accrue(loans, repo, due.plusDays(9), policy);
+            assertEquals(3 * policy.owed(9), repo.balance(u));
+        }
+    }
+
+    @Test
+    void postings_that_cannot_be_logged_change_no_balance_and_no_loan() throws IOException {
+        var u = new User("U1", "Aseel");
+        LocalDate borrowed = LocalDate.of(2025, 1, 1), due = borrowed.plusDays(28);
+        var policy = new FineAccrualService.Policy(100, 5_000);
+        var repo = new DurableFineRepository(dir, 0);
+        var loans = loans(u, borrowed, due);
+        accrue(loans, repo, due.plusDays(2), policy);
+        repo.close();
+
+        assertThrows(IllegalStateException.class, () -> accrue(loans, repo, due.plusDays(5), policy));
+        assertThrows(IllegalStateException.class, () -> repo.accrue(u, 50));
+        assertThrows(IllegalStateException.class, () -> repo.pay(u, 50));
+        assertEquals(3 * 200, repo.balance(u));
+        for (Loan l : loans.findAll()) assertEquals(due.plusDays(2).toEpochDay(), l.getFinedThrough());
+
+        // the days the failed run claimed are charged by the next one
+        try (var reopened = new DurableFineRepository(dir, 0)) {
+            assertEquals(3 * 300, accrue(loans, reopened, due.plusDays(5), policy).agorot());
+            assertEquals(3 * 500, reopened.balance(u));
+        }
+    }
+
+    @Test
+    void settled_loans_are_forgotten_in_the_log_and_in_snapshots() throws IOException {
+        var u = new User("U1", "Aseel");
+        LocalDate borrowed = LocalDate.of(2025, 1, 1), due = borrowed.plusDays(28);
+        var policy = new FineAccrualService.Policy(100, 5_000);
+        try (var repo = new DurableFineRepository(dir, 0)) {
+            var loans = loans(u, borrowed, due);
+            accrue(loans, repo, due.plusDays(2), policy);
+            var returned = loans.findAll().get(0);
+            returned.markReturned();
+            var clock = Clock.fixed(due.plusDays(4).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+            assertEquals(200, new FineAccrualService(loans, repo, clock, policy).settle(returned).agorot());
+            assertEquals(due.plusDays(4).toEpochDay(), repo.finedThrough(returned));
+            repo.settled(loans.findAll().get(1)); // still open, so it keeps its day
+        }
+        for (int restart = 0; restart < 2; restart++) {
+            try (var repo = new DurableFineRepository(dir, 0)) {
+                var loans = loans(u, borrowed, due).findAll();
+                assertEquals(due.toEpochDay(), repo.finedThrough(loans.get(0)));
+                assertEquals(due.plusDays(2).toEpochDay(), repo.finedThrough(loans.get(1)));
+                assertEquals(due.plusDays(2).toEpochDay(), repo.finedThrough(loans.get(2)));
+                assertEquals(3 * 200 + 200, repo.balance(u));
+                repo.checkpoint(); // the second pass reads the snapshot
+            }
+        }
+    }
+
+    private static InMemoryLoanRepository loans(User u, LocalDate borrowed, LocalDate due) {
+        var loans = new InMemoryLoanRepository();
+        for (int i = 0; i < 3; i++) loans.save(new Loan(u, new Book("T" + i, "A", "ISBN-" + i), borrowed, due));
+        return loans;
+    }
+
+    private static FineAccrualService.Run accrue(InMemoryLoanRepository loans, DurableFineRepository repo, LocalDate day,
+                                                 FineAccrualService.Policy policy) {
+        var clock = Clock.fixed(day.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new FineAccrualService(loans, repo, clock, policy).accrue();
+    }
+}
@@ -0,0 +1,178 @@
+package com.library.infrastructure;
+
+import com.library.app.BorrowingService;
+import com.library.domain.model.Book;
+import com.library.domain.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableLoanRepositoryTest {
+    private static final Clock FIXED = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC"));
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("loans");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void loans_and_returns_survive_a_restart() throws IOException {
+        var books = catalog();
+        var u = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books, Map.of("U1", u)::get)) {
+            var svc = new BorrowingService(repo, FIXED);
+            svc.borrow(u, books.findByIsbn("ISBN-1").orElseThrow());
+            svc.borrow(u, books.findByIsbn("ISBN-2").orElseThrow());
+            svc.returnBook(u, books.findByIsbn("ISBN-1").orElseThrow());
+        }
+
+        var books2 = catalog();
+        var u2 = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books2, Map.of("U1", u2)::get)) {
+            assertEquals(2, repo.findAll().size());
+            var open = repo.findOpen();
+            assertEquals(1, open.size());
+            assertSame(books2.findByIsbn("ISBN-2").orElseThrow(), open.get(0).getBook());
+            assertFalse(books2.findByIsbn("ISBN-2").orElseThrow().isAvailable());
+            assertTrue(books2.findByIsbn("ISBN-1").orElseThrow().isAvailable());
+            assertTrue(u2.hasBorrowed("ISBN-2"));
+
+            // returns after recovery are logged too
+            new BorrowingService(repo, FIXED).returnBook(u2, books2.findByIsbn("ISBN-2").orElseThrow());
+        }
+
+        try (var repo = new DurableLoanRepository(dir, catalog(), id -> null)) {
+            assertTrue(repo.findOpen().isEmpty());
+            assertEquals(2, repo.findAll().size());
+        }
+    }
+
+    @Test
+    void checkpoint_compacts_the_log_and_recovery_reads_snapshot_plus_tail() throws IOException {
+        var books = catalog();
+        var u = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books, id -> u)) {
+            var svc = new BorrowingService(repo, FIXED);
+            svc.borrow(u, books.findByIsbn("ISBN-1").orElseThrow());
+            repo.checkpoint();
+            svc.borrow(u, books.findByIsbn("ISBN-2").orElseThrow());
+            svc.returnBook(u, books.findByIsbn("ISBN-1").orElseThrow());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count(), "one snapshot and one log");
+        }
+
+        try (var repo = new DurableLoanRepository(dir, catalog(), id -> null)) {
+            assertEquals(2, repo.findAll().size());
+            assertEquals("ISBN-2", repo.findOpen().get(0).getBook().getIsbn());
+            assertEquals(1, repo.findOpen().size());
+        }
+    }
+
+    @Test
+    void torn_tail_is_truncated_on_recovery() throws IOException {
+        var books = catalog();
+        var u = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books, id -> u)) {
+            new BorrowingService(repo, FIXED).borrow(u, books.findByIsbn("ISBN-1").orElseThrow());
+        }
+        Path log = dir.resolve("loans-0.log");
+        long size = Files.size(log);
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            ch.position(size);
+            ch.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        var books2 = catalog();
+        try (var repo = new DurableLoanRepository(dir, books2, id -> null)) {
+            assertEquals(1, repo.findAll().size());
+            new BorrowingService(repo, FIXED).borrow(new User("U2", "Maram"), books2.findByIsbn("ISBN-2").orElseThrow());
+        }
+        try (var repo = new DurableLoanRepository(dir, catalog(), id -> null)) {
+            assertEquals(2, repo.findAll().size());
+        }
+    }
+
+    @Test
+    void batch_borrows_and_returns_are_one_record_each_and_survive_a_restart() throws IOException {
+        var books = catalog();
+        var b1 = books.findByIsbn("ISBN-1").orElseThrow();
+        var b2 = books.findByIsbn("ISBN-2").orElseThrow();
+        var u = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books, Map.of("U1", u)::get)) {
+            var svc = new BorrowingService(repo, FIXED);
+            assertTrue(svc.borrowAll(u, List.of(b1, b2)).applied());
+            assertTrue(svc.returnAll(u, List.of(b1)).applied());
+        }
+        try (Stream<Path> logs = Files.list(dir)) {
+            long size = logs.filter(p -> p.getFileName().toString().endsWith(".log")).mapToLong(p -> p.toFile().length()).sum();
+            assertTrue(size > 0);
+        }
+
+        var books2 = catalog();
+        var u2 = new User("U1", "Aseel");
+        try (var repo = new DurableLoanRepository(dir, books2, Map.of("U1", u2)::get)) {
+            assertEquals(2, repo.findAll().size());
+            assertEquals(1, repo.findOpen().size());
+            assertTrue(books2.findByIsbn("ISBN-1").orElseThrow().isAvailable());
+            assertTrue(u2.hasBorrowed("ISBN-2"));
+            // a single return after a batch borrow is still logged on its own
+            new BorrowingService(repo, FIXED).returnBook(u2, books2.findByIsbn("ISBN-2").orElseThrow());
+        }
+        try (var repo = new DurableLoanRepository(dir, catalog(), id -> null)) {
+            assertTrue(repo.findOpen().isEmpty());
+        }
+    }
+
+    @Test
+    void failed_log_writes_leave_loans_books_and_users_as_they_were() throws IOException {
+        var books = catalog();
+        var u = new User("U1", "Aseel");
+        var lent = books.findByIsbn("ISBN-1").orElseThrow();
+        var other = books.findByIsbn("ISBN-2").orElseThrow();
+        var repo = new DurableLoanRepository(dir, books, Map.of("U1", u)::get);
+        var svc = new BorrowingService(repo, FIXED);
+        var loan = svc.borrow(u, lent);
+        repo.close();
+
+        assertThrows(IllegalStateException.class, () -> svc.borrow(u, other));
+        assertTrue(other.isAvailable());
+        assertFalse(u.hasBorrowed("ISBN-2"));
+        assertEquals(List.of(loan), repo.findOpen());
+
+        assertThrows(IllegalStateException.class, () -> svc.returnBook(u, lent));
+        assertThrows(IllegalStateException.class, () -> svc.returnAll(u, List.of(lent)));
+        assertFalse(loan.isReturned());
+        assertEquals(List.of(loan), repo.findOpen());
+        assertSame(loan, repo.findOpenLoan(u, lent).orElseThrow());
+        assertFalse(lent.isAvailable());
+        assertTrue(u.hasBorrowed("ISBN-1"));
+    }
+
+    private static InMemoryBookRepository catalog() {
+        var books = new InMemoryBookRepository();
+        books.save(new Book("Eng", "Mike", "ISBN-1"));
+        books.save(new Book("Math", "Mike", "ISBN-2"));
+        return books;
+    }
+}
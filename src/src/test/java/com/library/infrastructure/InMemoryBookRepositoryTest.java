@@ -0,0 +1,58 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryBookRepositoryTest {
+    @Test
+    void save_find_and_list_in_insertion_order() {
+        var repo = new InMemoryBookRepository();
+        var b1 = new Book("Clean Code", "Robert C. Martin", "9780132350884");
+        var b2 = new Book("Engineering Math", "Mike Brown", "ISBN-1");
+        assertTrue(repo.saveIfAbsent(b1));
+        repo.save(b2);
+
+        assertSame(b2, repo.findByIsbn("ISBN-1").orElseThrow());
+        assertTrue(repo.findByIsbn("nope").isEmpty());
+        assertEquals(List.of(b1, b2), repo.findAll());
+        assertEquals(2, repo.count());
+
+        assertFalse(repo.saveIfAbsent(new Book("Other", "X", "ISBN-1")));
+        assertSame(b2, repo.findByIsbn("ISBN-1").orElseThrow());
+
+        var replacement = new Book("Engineering Math 2e", "Mike Brown", "ISBN-1");
+        repo.save(replacement);
+        assertEquals(List.of(b1, replacement), repo.findAll());
+    }
+
+    @Test
+    void concurrent_saves_keep_one_book_per_isbn() throws Exception {
+        var repo = new InMemoryBookRepository();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> wins = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                wins.add(pool.submit(() -> {
+                    int won = 0;
+                    for (int i = 0; i < 10_000; i++) if (repo.saveIfAbsent(new Book("T", "A", "I-" + i))) won++;
+                    return won;
+                }));
+            }
+            int total = 0;
+            for (var f : wins) total += f.get();
+            assertEquals(10_000, total);
+            assertEquals(10_000, repo.count());
+            assertEquals(10_000, repo.findAll().size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.infrastructure;
+
+import com.library.domain.model.Book;
+import com.library.domain.model.Loan;
+import com.library.domain.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLoanRepositoryTest {
+    private static final LocalDate D = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void indexes_by_user_book_and_open_state() {
+        var repo = new InMemoryLoanRepository();
+        var u1 = new User("U1", "Aseel");
+        var u2 = new User("U2", "Maram");
+        var b1 = new Book("Eng", "Mike", "ISBN-1");
+        var b2 = new Book("Math", "Mike", "ISBN-2");
+
+        var l1 = new Loan(u1, b1, D, D.plusDays(28));
+        var l2 = new Loan(u1, b2, D, D.plusDays(28));
+        var l3 = new Loan(u2, b1, D, D.plusDays(28));
+        repo.save(l1);
+        repo.save(l2);
+
+        assertEquals(List.of(l1, l2), repo.findByUser(u1));
+        assertEquals(List.of(l1), repo.findByBook(b1));
+        assertSame(l1, repo.findOpenLoan(u1, b1).orElseThrow());
+        assertTrue(repo.findOpenLoan(u2, b1).isEmpty());
+
+        repo.markReturned(l1);
+        assertTrue(l1.isReturned());
+        assertTrue(repo.findOpenLoan(u1, b1).isEmpty());
+        assertEquals(List.of(l2), repo.findOpen());
+
+        repo.save(l3);
+        assertEquals(List.of(l1, l3), repo.findByBook(b1));
+        assertEquals(Set.of(l2, l3), Set.copyOf(repo.findOpen()));
+        assertEquals(3, repo.findAll().size());
+    }
+
+    @Test
+    void loans_returned_on_the_model_leave_the_open_index() {
+        var repo = new InMemoryLoanRepository();
+        var u = new User("U1", "Aseel");
+        var b = new Book("Eng", "Mike", "ISBN-1");
+        var l = new Loan(u, b, D, D.plusDays(28));
+        repo.save(l);
+
+        l.markReturned();
+        assertTrue(repo.findOpenLoan(u, b).isEmpty());
+        assertTrue(repo.findOpen().isEmpty());
+    }
+
+    @Test
+    void open_loans_by_due_date_range() {
+        var repo = new InMemoryLoanRepository();
+        var u = new User("U1", "Aseel");
+        assertTrue(repo.findFirstOpenDueDate().isEmpty());
+        var early = new Loan(u, new Book("A", "X", "ISBN-1"), D, D.plusDays(10));
+        var mid = new Loan(u, new Book("B", "X", "ISBN-2"), D, D.plusDays(20));
+        var late = new Loan(u, new Book("C", "X", "ISBN-3"), D, D.plusDays(30));
+        repo.save(late);
+        repo.save(early);
+        repo.save(mid);
+
+        assertEquals(D.plusDays(10), repo.findFirstOpenDueDate().orElseThrow());
+        assertEquals(List.of(early, mid), repo.findOpenDueBetween(D.plusDays(10), D.plusDays(30)));
+        assertEquals(List.of(mid), repo.findOpenDueBetween(D.plusDays(11), D.plusDays(21)));
+        assertTrue(repo.findOpenDueBetween(D.plusDays(30), D.plusDays(30)).isEmpty());
+
+        early.markReturned();
+        assertEquals(D.plusDays(20), repo.findFirstOpenDueDate().orElseThrow());
+        assertEquals(List.of(mid, late), repo.findOpenDueBetween(LocalDate.MIN, D.plusDays(31)));
+    }
+}
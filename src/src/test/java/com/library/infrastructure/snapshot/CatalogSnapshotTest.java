@@ -0,0 +1,79 @@
+package com.library.infrastructure.snapshot;
+
+import com.library.domain.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+    @Test
+    void round_trip_keeps_fields_order_and_availability() throws Exception {
+        var dir = Files.createTempDirectory("catalog");
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 1_000; i++) books.add(new Book("Title " + i, "Author " + (i % 37), "978" + i));
+        books.add(new Book("Ünïcödé — 書", "Ça", "ISBN-ü"));
+        books.get(3).markBorrowed();
+        books.add(new Book("Dup", "Dup", "9783")); // same ISBN as books.get(3), skipped
+
+        var file = dir.resolve("catalog.bin");
+        assertEquals(1_001, CatalogSnapshot.write(file, books));
+        var catalog = MappedCatalog.open(file);
+
+        assertEquals(1_001, catalog.count());
+        var all = catalog.findAll();
+        for (int i = 0; i < 1_001; i++) {
+            assertEquals(books.get(i).getTitle(), all.get(i).getTitle());
+            assertEquals(books.get(i).getAuthor(), all.get(i).getAuthor());
+            assertEquals(books.get(i).getIsbn(), all.get(i).getIsbn());
+            assertEquals(books.get(i).isAvailable(), all.get(i).isAvailable());
+        }
+        assertEquals("Title 3", catalog.findByIsbn("9783").orElseThrow().getTitle());
+        assertEquals("Ça", catalog.findByIsbn("ISBN-ü").orElseThrow().getAuthor());
+        assertEquals(Optional.empty(), catalog.findByIsbn("nope"));
+    }
+
+    @Test
+    void views_are_stable_and_new_books_shadow_nothing() throws Exception {
+        var file = Files.createTempDirectory("catalog").resolve("catalog.bin");
+        CatalogSnapshot.write(file, List.of(new Book("A", "a", "1"), new Book("B", "b", "2")));
+        var catalog = MappedCatalog.open(file);
+
+        var one = catalog.findByIsbn("1").orElseThrow();
+        assertTrue(one.tryMarkBorrowed());
+        assertSame(one, catalog.findAll().get(0));
+        assertFalse(catalog.findByIsbn("1").orElseThrow().isAvailable());
+
+        assertFalse(catalog.saveIfAbsent(new Book("X", "x", "2")));
+        assertTrue(catalog.saveIfAbsent(new Book("C", "c", "3")));
+        var replacement = new Book("B2", "b", "2");
+        catalog.save(replacement);
+
+        assertEquals(3, catalog.count());
+        assertSame(replacement, catalog.findByIsbn("2").orElseThrow());
+        assertEquals(List.of("A", "B2", "C"), catalog.stream().map(Book::getTitle).toList());
+    }
+
+    @Test
+    void rejects_files_that_are_not_snapshots() throws Exception {
+        var file = Files.createTempDirectory("catalog").resolve("junk.bin");
+        Files.write(file, new byte[128]);
+        assertThrows(IOException.class, () -> MappedCatalog.open(file));
+    }
+
+    @Test
+    void failed_write_leaves_neither_the_snapshot_nor_its_temporary_file() throws Exception {
+        var dir = Files.createTempDirectory("catalog");
+        var file = dir.resolve("catalog.bin");
+        var books = List.of(new Book("Clean Code", "Robert C. Martin", "1"), new Book("x".repeat(70_000), "A", "2"));
+        assertThrows(IOException.class, () -> CatalogSnapshot.write(file, books));
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.library.presentation.http;
+
+import com.library.domain.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryHttpServerTest {
+    private static final Clock FIXED = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneId.of("UTC"));
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void serves_search_borrow_return_overdue_and_balance_as_json() throws Exception {
+        try (var server = LibraryHttpServer.inMemory(new InetSocketAddress("127.0.0.1", 0), FIXED, List.of(
+                new Book("Clean \"Code\"", "Robert C. Martin", "111"), new Book("Effective Java", "Joshua Bloch", "222")))) {
+            server.start();
+            String base = "http://127.0.0.1:" + server.port();
+
+            var search = get(base + "/search?q=clean");
+            assertEquals(200, search.statusCode());
+            assertEquals("{\"total\":1,\"offset\":0,\"books\":[{\"isbn\":\"111\",\"title\":\"Clean \\\"Code\\\"\","
+                    + "\"author\":\"Robert C. Martin\",\"available\":true}]}", search.body());
+            assertTrue(get(base + "/search?q=Efective+Jav&fuzzy=true").body().contains("\"isbn\":\"222\""));
+
+            var borrow = post(base + "/borrow", "user=U1&isbn=111");
+            assertEquals(200, borrow.statusCode());
+            assertEquals("{\"user\":\"U1\",\"isbn\":\"111\",\"title\":\"Clean \\\"Code\\\"\",\"borrowed\":\"2025-01-01\","
+                    + "\"due\":\"2025-01-29\"}", borrow.body());
+            var again = post(base + "/borrow?user=U2&isbn=111", "");
+            assertEquals(409, again.statusCode());
+            assertEquals("{\"error\":\"Book not available.\"}", again.body());
+            assertTrue(get(base + "/search?q=111").body().contains("\"available\":false"));
+
+            assertEquals("{\"total\":0,\"loans\":[]}", get(base + "/overdue").body());
+            assertEquals(200, post(base + "/return?user=U1&isbn=111", "").statusCode());
+            assertEquals(409, post(base + "/return?user=U1&isbn=111", "").statusCode());
+            assertEquals("{\"user\":\"U1\",\"agorot\":0,\"nis\":\"0.00\"}", get(base + "/balance?user=U1").body());
+
+            assertEquals(404, post(base + "/borrow?user=U1&isbn=999", "").statusCode());
+            assertEquals(400, get(base + "/search").statusCode());
+            assertEquals(400, get(base + "/search?q=x&limit=ten").statusCode());
+            assertEquals(405, get(base + "/borrow?user=U1&isbn=111").statusCode());
+        }
+    }
+
+    @Test
+    void formats_shekels_from_the_sign_and_the_magnitude() {
+        assertEquals("0.00", LibraryHttpServer.nis(0));
+        assertEquals("-0.05", LibraryHttpServer.nis(-5));
+        assertEquals("-12.30", LibraryHttpServer.nis(-1_230));
+        assertEquals("1234.56", LibraryHttpServer.nis(123_456));
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String url, String form) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}